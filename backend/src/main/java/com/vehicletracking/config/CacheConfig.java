@@ -0,0 +1,63 @@
+package com.vehicletracking.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String VEHICLE_BY_ID = "vehicleById";
+    public static final String VEHICLE_BY_DRIVER = "vehicleByDriver";
+    public static final String ALL_VEHICLES = "allVehicles";
+    public static final String ACTIVE_VEHICLES = "activeVehicles";
+    public static final String VEHICLES_BY_UNIVERSITY = "vehiclesByUniversity";
+    public static final String VEHICLES_BY_TYPE = "vehiclesByType";
+    public static final String VEHICLES_BY_STATUS = "vehiclesByStatus";
+    public static final String VEHICLES_BY_UNIVERSITY_AND_TYPE = "vehiclesByUniversityAndType";
+    public static final String VEHICLES_WITH_LOCATION = "vehiclesWithLocation";
+    public static final String VEHICLES_WITH_LOCATION_BY_UNIVERSITY = "vehiclesWithLocationByUniversity";
+    public static final String FLEET_TELEMETRY = "fleetTelemetry";
+    public static final String FLEET_TELEMETRY_BY_UNIVERSITY = "fleetTelemetryByUniversity";
+    public static final String FLEET_METADATA = "fleetMetadata";
+    public static final String FLEET_METADATA_BY_UNIVERSITY = "fleetMetadataByUniversity";
+    
+    public static final String[] VEHICLE_CACHES = {
+        VEHICLE_BY_ID, VEHICLE_BY_DRIVER, ALL_VEHICLES, ACTIVE_VEHICLES, VEHICLES_BY_UNIVERSITY,
+        VEHICLES_BY_TYPE, VEHICLES_BY_STATUS, VEHICLES_BY_UNIVERSITY_AND_TYPE,
+        VEHICLES_WITH_LOCATION, VEHICLES_WITH_LOCATION_BY_UNIVERSITY, FLEET_TELEMETRY,
+        FLEET_TELEMETRY_BY_UNIVERSITY, FLEET_METADATA, FLEET_METADATA_BY_UNIVERSITY
+    };
+    
+    // Vehicle responses carry the live location, so by default they live for one update interval
+    @Value("${app.cache.ttl.default:${app.location.update.interval:5000}}")
+    private long defaultTtlMillis;
+    
+    @Value("${app.cache.max.entries:1000}")
+    private long maxEntries;
+    
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        
+        // Each cache can override its time-to-live with app.cache.ttl.<cacheName>
+        for (String cacheName : VEHICLE_CACHES) {
+            long ttlMillis = environment.getProperty("app.cache.ttl." + cacheName, Long.class, defaultTtlMillis);
+            cacheManager.registerCustomCache(cacheName, Caffeine.newBuilder()
+                    .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                    .maximumSize(maxEntries)
+                    .recordStats()
+                    .build());
+        }
+        
+        return cacheManager;
+    }
+}
@@ -46,6 +46,7 @@ public final class SecurityConstants {
     public static final double MAX_SPEED_KMH = 150.0; // Maximum realistic vehicle speed
     public static final double MIN_LOCATION_ACCURACY_METERS = 1000.0; // Minimum GPS accuracy
     public static final long MAX_LOCATION_AGE_MINUTES = 10; // Maximum age of location data
+    public static final long MAX_CLOCK_SKEW_MINUTES = 60; // Maximum device clock offset from server time
     public static final double MIN_LATITUDE = -90.0;
     public static final double MAX_LATITUDE = 90.0;
     public static final double MIN_LONGITUDE = -180.0;
@@ -0,0 +1,80 @@
+package com.vehicletracking.config;
+
+import com.vehicletracking.dto.VehicleTelemetryDto;
+import com.vehicletracking.util.TelemetryBinaryCodec;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes vehicle telemetry in the compact binary layout of {@link TelemetryBinaryCodec}
+ * when the client asks for it with Accept: application/x-vehicle-telemetry
+ */
+public class TelemetryBinaryMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(TelemetryBinaryCodec.MEDIA_TYPE);
+    
+    public TelemetryBinaryMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return VehicleTelemetryDto.class == clazz || List.class.isAssignableFrom(clazz);
+    }
+    
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isTelemetry(type) && canRead(mediaType);
+    }
+    
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isTelemetry(type != null ? type : clazz) && canWrite(mediaType);
+    }
+    
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        List<VehicleTelemetryDto> vehicles = TelemetryBinaryCodec.decode(inputMessage.getBody());
+        if (type == VehicleTelemetryDto.class) {
+            if (vehicles.size() != 1) {
+                throw new HttpMessageNotReadableException("Expected a single telemetry record", inputMessage);
+            }
+            return vehicles.get(0);
+        }
+        return vehicles;
+    }
+    
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        List<VehicleTelemetryDto> vehicles = body instanceof VehicleTelemetryDto
+            ? List.of((VehicleTelemetryDto) body)
+            : (List<VehicleTelemetryDto>) body;
+        TelemetryBinaryCodec.encode(vehicles, outputMessage.getBody());
+    }
+    
+    private static boolean isTelemetry(Type type) {
+        if (type == null) {
+            return false;
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        if (VehicleTelemetryDto.class == resolved.resolve()) {
+            return true;
+        }
+        return resolved.asCollection().resolveGeneric(0) == VehicleTelemetryDto.class
+            && List.class.isAssignableFrom(resolved.toClass());
+    }
+}
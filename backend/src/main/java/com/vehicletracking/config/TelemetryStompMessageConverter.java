@@ -0,0 +1,50 @@
+package com.vehicletracking.config;
+
+import com.vehicletracking.dto.VehicleTelemetryDto;
+import com.vehicletracking.util.TelemetryBinaryCodec;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes vehicle telemetry sent to STOMP destinations in the compact binary layout of
+ * {@link TelemetryBinaryCodec} when the message is sent with a binary content type. Sent as
+ * application/octet-stream, the frames reach sessions on the raw WebSocket transport as binary
+ * messages; SockJS fallback transports only carry text.
+ */
+public class TelemetryStompMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType MIME_TYPE = MimeType.valueOf(TelemetryBinaryCodec.MEDIA_TYPE);
+
+    public TelemetryStompMessageConverter() {
+        super(Arrays.asList(MIME_TYPE, MimeTypeUtils.APPLICATION_OCTET_STREAM));
+        // Messages without a binary content type are left to the JSON converter
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return VehicleTelemetryDto.class == clazz || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        if (payload instanceof VehicleTelemetryDto) {
+            return TelemetryBinaryCodec.encode(List.of((VehicleTelemetryDto) payload));
+        }
+
+        List<?> items = (List<?>) payload;
+        for (Object item : items) {
+            if (!(item instanceof VehicleTelemetryDto)) {
+                return null;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<VehicleTelemetryDto> vehicles = (List<VehicleTelemetryDto>) items;
+        return TelemetryBinaryCodec.encode(vehicles);
+    }
+}
@@ -0,0 +1,30 @@
+package com.vehicletracking.config;
+
+import com.vehicletracking.websocket.TelemetryHandshakeInterceptor;
+import com.vehicletracking.websocket.TelemetryWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class TelemetryWebSocketConfig implements WebSocketConfigurer {
+
+    public static final String TELEMETRY_ENDPOINT = "/ws/telemetry";
+
+    @Autowired
+    private TelemetryWebSocketHandler telemetryWebSocketHandler;
+
+    @Autowired
+    private TelemetryHandshakeInterceptor telemetryHandshakeInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Plain WebSocket for driver apps, authenticated once at handshake
+        registry.addHandler(telemetryWebSocketHandler, TELEMETRY_ENDPOINT)
+                .addInterceptors(telemetryHandshakeInterceptor)
+                .setAllowedOriginPatterns("http://localhost:3000", "http://localhost:3001");
+    }
+}
\ No newline at end of file
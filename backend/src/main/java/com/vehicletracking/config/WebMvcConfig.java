@@ -0,0 +1,17 @@
+package com.vehicletracking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Added last so JSON stays the default for clients that accept any type
+        converters.add(new TelemetryBinaryMessageConverter());
+    }
+}
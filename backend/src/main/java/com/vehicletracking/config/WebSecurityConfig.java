@@ -69,6 +69,8 @@ public class WebSecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
+                // Authenticated by its handshake interceptor, which also accepts a token parameter
+                .requestMatchers(TelemetryWebSocketConfig.TELEMETRY_ENDPOINT).permitAll()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/driver/**").hasRole("DRIVER")
                 .requestMatchers("/api/announcements/**").hasAnyRole("ADMIN", "DRIVER")
@@ -1,19 +1,45 @@
 package com.vehicletracking.config;
 
+import com.vehicletracking.websocket.ChatChannelInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    @Autowired
+    private ChatChannelInterceptor chatChannelInterceptor;
+    
+    @Value("${app.websocket.heartbeat.ms:10000}")
+    private long heartbeatMs;
+    
+    private TaskScheduler messageBrokerTaskScheduler;
+    
+    // The broker's own scheduler, created by the configuration this class contributes to
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple in-memory message broker to carry messages to clients
-        config.enableSimpleBroker("/topic", "/queue");
+        // Heartbeats let the broker close silent sessions, which ends their presence
+        config.enableSimpleBroker("/topic", "/queue")
+              .setHeartbeatValue(new long[] {heartbeatMs, heartbeatMs})
+              .setTaskScheduler(messageBrokerTaskScheduler);
         // Prefix for messages coming from client
         config.setApplicationDestinationPrefixes("/app");
         // Prefix for user-specific destinations
@@ -27,4 +53,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("http://localhost:3000", "http://localhost:3001")
                 .withSockJS();
     }
+    
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticate sessions and authorize chat room subscriptions
+        registration.interceptors(chatChannelInterceptor);
+    }
+    
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Binary telemetry for messages sent with a binary content type, then the default JSON converters
+        messageConverters.add(new TelemetryStompMessageConverter());
+        return true;
+    }
 } 
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.vehicletracking.controller;
 
 import com.vehicletracking.dto.MessageResponse;
+import com.vehicletracking.ingest.LocationIngestPipeline;
 import com.vehicletracking.service.DashboardService;
 import com.vehicletracking.service.UserService;
 import com.vehicletracking.service.VehicleService;
 import com.vehicletracking.service.AnnouncementService;
+import com.vehicletracking.service.CacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +14,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -31,6 +34,12 @@ public class AdminController {
     @Autowired
     private AnnouncementService announcementService;
 
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private LocationIngestPipeline locationIngestPipeline;
+
     /**
      * Get admin dashboard statistics
      */
@@ -132,12 +141,19 @@ public class AdminController {
      */
     @GetMapping("/trips/analytics")
     public ResponseEntity<?> getTripAnalytics(@RequestParam(required = false) String startDate,
-                                            @RequestParam(required = false) String endDate) {
+                                            @RequestParam(required = false) String endDate,
+                                            @RequestParam(required = false) String from,
+                                            @RequestParam(required = false) String to,
+                                            @RequestParam(required = false) String university) {
         try {
             LocalDate start = startDate != null ? LocalDate.parse(startDate) : LocalDate.now().minusMonths(1);
             LocalDate end = endDate != null ? LocalDate.parse(endDate) : LocalDate.now();
             
-            return ResponseEntity.ok(dashboardService.getTripAnalytics(start, end));
+            // Exact times, e.g. 2024-05-01T08:00, take precedence over whole days
+            LocalDateTime fromTime = from != null ? LocalDateTime.parse(from) : start.atStartOfDay();
+            LocalDateTime toTime = to != null ? LocalDateTime.parse(to) : end.plusDays(1).atStartOfDay();
+            
+            return ResponseEntity.ok(dashboardService.getTripAnalytics(fromTime, toTime, university));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new MessageResponse("Error fetching trip analytics: " + e.getMessage()));
@@ -211,4 +227,30 @@ public class AdminController {
                 .body(new MessageResponse("Error deleting vehicle: " + e.getMessage()));
         }
     }
-}
+
+    /**
+     * Get hit and miss statistics of the response caches
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        try {
+            return ResponseEntity.ok(cacheService.getStatistics());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error fetching cache stats: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get queue depths and shed counts of the location ingest pipeline
+     */
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<?> getIngestStats() {
+        try {
+            return ResponseEntity.ok(locationIngestPipeline.getStatistics());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error fetching ingest stats: " + e.getMessage()));
+        }
+    }
+}
\ No newline at end of file
@@ -62,7 +62,10 @@ public class AnnouncementController {
      * Get all announcements for current user's role
      */
     @GetMapping
-    public ResponseEntity<?> getAnnouncements(Authentication authentication) {
+    public ResponseEntity<?> getAnnouncements(@RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(required = false) Integer size,
+                                              @RequestParam(required = false) String after,
+                                              Authentication authentication) {
         try {
             String username = authentication.getName();
             Optional<User> userOpt = userService.findByUsername(username);
@@ -73,7 +76,17 @@ public class AnnouncementController {
             }
             
             Role userRole = userOpt.get().getRole();
-            List<Announcement> announcements = announcementService.getAnnouncementsForRole(userRole);
+            // Without a page size the whole feed is returned, as before. The next page is cheapest
+            // asked for with after, the id of the last announcement of the previous one.
+            List<Announcement> announcements;
+            if (size == null) {
+                announcements = announcementService.getAnnouncementsForRole(userRole);
+            } else if (after != null) {
+                announcements = announcementService.getAnnouncementsForRole(userRole, after, Math.max(size, 1));
+            } else {
+                announcements = announcementService.getAnnouncementsForRole(userRole,
+                    Math.max(page, 0) * Math.max(size, 1), Math.max(size, 1));
+            }
             return ResponseEntity.ok(announcements);
             
         } catch (Exception e) {
@@ -100,7 +113,7 @@ public class AnnouncementController {
             
             if (userOpt.isPresent()) {
                 // Mark as read for the user
-                announcementService.markAsRead(id, userOpt.get().getId().toString());
+                announcementService.markAsRead(id, userOpt.get().getId().toString(), userOpt.get().getRole());
             }
             
             return ResponseEntity.ok(announcementOpt.get());
@@ -1,12 +1,15 @@
 package com.vehicletracking.controller;
 
 import com.vehicletracking.dto.*;
+import com.vehicletracking.event.UserCreatedEvent;
+import com.vehicletracking.event.UserLoginEvent;
 import com.vehicletracking.model.User;
 import com.vehicletracking.repository.UserRepository;
 import com.vehicletracking.security.JwtUtils;
 import com.vehicletracking.security.UserPrincipal;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -32,6 +35,9 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
     
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody UserLoginDto loginRequest) {
         
@@ -47,6 +53,7 @@ public class AuthController {
         // Get user from database to access role information
         User user = userRepository.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        eventPublisher.publishEvent(new UserLoginEvent(user));
         
         return ResponseEntity.ok(new JwtResponse(jwt,
                                                userDetails.getId(),
@@ -84,7 +91,8 @@ public class AuthController {
         user.setEmployeeId(signUpRequest.getEmployeeId());
         user.setLicenseNumber(signUpRequest.getLicenseNumber());
         
-        userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserCreatedEvent(savedUser));
         
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
@@ -3,10 +3,17 @@ package com.vehicletracking.controller;
 import com.vehicletracking.dto.MessageResponse;
 import com.vehicletracking.model.ChatMessage;
 import com.vehicletracking.model.User;
+import com.vehicletracking.service.ChatHistoryService;
+import com.vehicletracking.service.ChatReadStateService;
+import com.vehicletracking.service.ChatRoomService;
+import com.vehicletracking.service.ChatRoomService.ChatRoom;
+import com.vehicletracking.service.IdGenerator;
+import com.vehicletracking.service.PresenceService;
 import com.vehicletracking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
@@ -17,11 +24,10 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.security.Principal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Controller
 @RequestMapping("/api/chat")
@@ -34,29 +40,44 @@ public class ChatController {
     @Autowired
     private UserService userService;
 
-    // Store chat messages in memory (in production, use a database)
-    private static final List<ChatMessage> chatHistory = new ArrayList<>();
-    private static final ConcurrentHashMap<String, String> activeUsers = new ConcurrentHashMap<>();
+    @Autowired
+    private ChatHistoryService chatHistoryService;
+
+    @Autowired
+    private ChatRoomService chatRoomService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ChatReadStateService chatReadStateService;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     /**
      * Handle new chat messages
      */
     @MessageMapping("/chat.sendMessage")
     @SendTo("/topic/public")
-    public ChatMessage sendMessage(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor) {
+    public ChatMessage sendMessage(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor,
+                                   Principal principal) {
         try {
             // Set timestamp
             chatMessage.setCreatedAt(LocalDateTime.now());
             
-            // Generate ID (in production, use proper ID generation)
-            chatMessage.setId(System.currentTimeMillis() + "_" + chatMessage.getSenderId());
+            // Time-ordered ID, used as the history cursor
+            chatMessage.setId(idGenerator.nextIdString());
             
-            // Store message in history
-            chatHistory.add(chatMessage);
+            // Store message in history, which keeps only the newest messages
+            long position = chatHistoryService.append(ChatHistoryService.PUBLIC_CHANNEL, chatMessage);
             
-            // Limit chat history to last 100 messages
-            if (chatHistory.size() > 100) {
-                chatHistory.remove(0);
+            // Only an authenticated sender has a cursor to move; the payload's senderId is not trusted
+            if (principal != null) {
+                userService.findByUsername(principal.getName()).ifPresent(user ->
+                    chatReadStateService.onSent(ChatHistoryService.PUBLIC_CHANNEL, position, user.getId(), null));
             }
             
             return chatMessage;
@@ -78,12 +99,12 @@ public class ChatController {
     @SendTo("/topic/public")
     public ChatMessage addUser(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor) {
         try {
-            // Add user to active users
-            activeUsers.put(headerAccessor.getSessionId(), chatMessage.getSenderName());
+            // Name shown for this session among the online users
+            presenceService.setDisplayName(headerAccessor.getSessionId(), chatMessage.getSenderName());
             
             // Set timestamp
             chatMessage.setCreatedAt(LocalDateTime.now());
-            chatMessage.setId(System.currentTimeMillis() + "_join");
+            chatMessage.setId(idGenerator.nextIdString());
             chatMessage.setMessage(chatMessage.getSenderName() + " joined the chat!");
             
             return chatMessage;
@@ -101,10 +122,26 @@ public class ChatController {
      * Send private message
      */
     @MessageMapping("/chat.sendPrivateMessage")
-    public void sendPrivateMessage(@Payload ChatMessage chatMessage) {
+    public void sendPrivateMessage(@Payload ChatMessage chatMessage, Principal principal) {
+        if (principal == null) {
+            return;
+        }
+        
         try {
+            Optional<User> userOpt = userService.findByUsername(principal.getName());
+            
+            if (userOpt.isEmpty()) {
+                throw new IllegalStateException("User not found");
+            }
+            
+            // The sender is the authenticated user, whatever the payload claims, so nobody can
+            // write into a conversation they are not part of
+            User user = userOpt.get();
+            chatMessage.setSenderId(user.getId());
+            chatMessage.setSenderName(user.getFirstName() + " " + user.getLastName());
+            chatMessage.setSenderRole(user.getRole());
             chatMessage.setCreatedAt(LocalDateTime.now());
-            chatMessage.setId(System.currentTimeMillis() + "_private");
+            chatMessage.setId(idGenerator.nextIdString());
             
             // Send to specific user
             messagingTemplate.convertAndSendToUser(
@@ -113,8 +150,10 @@ public class ChatController {
                 chatMessage
             );
             
-            // Store in history
-            chatHistory.add(chatMessage);
+            // Store in the conversation's own history, never the public one
+            String channel = ChatHistoryService.privateChannel(chatMessage.getSenderId(), chatMessage.getRecipientId());
+            long position = chatHistoryService.append(channel, chatMessage);
+            chatReadStateService.onSent(channel, position, chatMessage.getSenderId(), chatMessage.getRecipientId());
             
         } catch (Exception e) {
             // Send error message back to sender
@@ -124,7 +163,7 @@ public class ChatController {
             errorMessage.setCreatedAt(LocalDateTime.now());
             
             messagingTemplate.convertAndSendToUser(
-                chatMessage.getSenderId(),
+                principal.getName(),
                 "/queue/private",
                 errorMessage
             );
@@ -132,16 +171,68 @@ public class ChatController {
     }
 
     /**
-     * Get chat history (REST endpoint)
+     * Send a message to the room of a university
+     */
+    @MessageMapping("/chat.room/{university}")
+    public void sendUniversityMessage(@DestinationVariable String university, @Payload ChatMessage chatMessage,
+                                      Principal principal) {
+        sendRoomMessage(new ChatRoom(university, null), chatMessage, principal);
+    }
+
+    /**
+     * Send a message to the room of one route of a university
+     */
+    @MessageMapping("/chat.room/{university}/{route}")
+    public void sendRouteMessage(@DestinationVariable String university, @DestinationVariable String route,
+                                 @Payload ChatMessage chatMessage, Principal principal) {
+        sendRoomMessage(new ChatRoom(university, route), chatMessage, principal);
+    }
+
+    /**
+     * Get chat history (REST endpoint), paged backwards from the before cursor
      */
     @GetMapping("/history")
     @ResponseBody
-    public ResponseEntity<?> getChatHistory(@RequestParam(defaultValue = "50") int limit) {
+    public ResponseEntity<?> getChatHistory(@RequestParam(required = false) String before,
+                                            @RequestParam(defaultValue = "50") int limit,
+                                            Authentication authentication) {
+        try {
+            // Opening the public chat starts counting its unread messages for the user
+            userService.findByUsername(authentication.getName())
+                .ifPresent(user -> chatReadStateService.join(user.getId(), ChatHistoryService.PUBLIC_CHANNEL));
+            
+            List<ChatMessage> messages = chatHistoryService.page(ChatHistoryService.PUBLIC_CHANNEL, before,
+                pageSize(limit));
+            
+            return ResponseEntity.ok(messages);
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error fetching chat history: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get private conversation history with another user (REST endpoint)
+     */
+    @GetMapping("/history/private/{userId}")
+    @ResponseBody
+    public ResponseEntity<?> getPrivateChatHistory(@PathVariable String userId,
+                                                   @RequestParam(required = false) String before,
+                                                   @RequestParam(defaultValue = "50") int limit,
+                                                   Authentication authentication) {
         try {
-            int startIndex = Math.max(0, chatHistory.size() - limit);
-            List<ChatMessage> recentMessages = chatHistory.subList(startIndex, chatHistory.size());
+            Optional<User> userOpt = userService.findByUsername(authentication.getName());
+            
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User not found"));
+            }
+            
+            String channel = ChatHistoryService.privateChannel(userOpt.get().getId(), userId);
+            List<ChatMessage> messages = chatHistoryService.page(channel, before, pageSize(limit));
             
-            return ResponseEntity.ok(recentMessages);
+            return ResponseEntity.ok(messages);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -149,6 +240,83 @@ public class ChatController {
         }
     }
 
+    /**
+     * Get the history of a university room (REST endpoint)
+     */
+    @GetMapping("/history/university/{university}")
+    @ResponseBody
+    public ResponseEntity<?> getUniversityChatHistory(@PathVariable String university,
+                                                      @RequestParam(required = false) String before,
+                                                      @RequestParam(defaultValue = "50") int limit,
+                                                      Authentication authentication) {
+        return getRoomHistory(new ChatRoom(university, null), before, limit, authentication);
+    }
+
+    /**
+     * Get the history of a route room (REST endpoint)
+     */
+    @GetMapping("/history/university/{university}/route/{route}")
+    @ResponseBody
+    public ResponseEntity<?> getRouteChatHistory(@PathVariable String university,
+                                                 @PathVariable String route,
+                                                 @RequestParam(required = false) String before,
+                                                 @RequestParam(defaultValue = "50") int limit,
+                                                 Authentication authentication) {
+        return getRoomHistory(new ChatRoom(university, route), before, limit, authentication);
+    }
+
+    /**
+     * Get unread message counts per conversation of the current user (REST endpoint)
+     */
+    @GetMapping("/unread")
+    @ResponseBody
+    public ResponseEntity<?> getUnreadCounts(Authentication authentication) {
+        try {
+            Optional<User> userOpt = userService.findByUsername(authentication.getName());
+            
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User not found"));
+            }
+            
+            return ResponseEntity.ok(chatReadStateService.getUnreadCounts(userOpt.get().getId()));
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error fetching unread counts: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Mark a conversation as read up to a message, or entirely without one (REST endpoint)
+     */
+    @PostMapping("/read")
+    @ResponseBody
+    public ResponseEntity<?> markRead(@RequestParam String conversation,
+                                      @RequestParam(required = false) String messageId,
+                                      Authentication authentication) {
+        try {
+            Optional<User> userOpt = userService.findByUsername(authentication.getName());
+            
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User not found"));
+            }
+            
+            // Conversations are the keys of the unread counts; others are not the user's
+            if (!chatReadStateService.markRead(userOpt.get().getId(), conversation, messageId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Conversation not found"));
+            }
+            
+            return ResponseEntity.ok(new MessageResponse("Conversation marked as read"));
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error marking conversation as read: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get active users (REST endpoint)
      */
@@ -156,7 +324,7 @@ public class ChatController {
     @ResponseBody
     public ResponseEntity<?> getActiveUsers() {
         try {
-            return ResponseEntity.ok(activeUsers.values());
+            return ResponseEntity.ok(presenceService.getOnlineUsers());
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -192,13 +360,14 @@ public class ChatController {
             message.setSenderName(user.getFirstName() + " " + user.getLastName());
             message.setSenderRole(user.getRole());
             message.setCreatedAt(LocalDateTime.now());
-            message.setId(System.currentTimeMillis() + "_broadcast");
+            message.setId(idGenerator.nextIdString());
             
             // Broadcast to all connected users
             messagingTemplate.convertAndSend("/topic/public", message);
             
             // Store in history
-            chatHistory.add(message);
+            long position = chatHistoryService.append(ChatHistoryService.PUBLIC_CHANNEL, message);
+            chatReadStateService.onSent(ChatHistoryService.PUBLIC_CHANNEL, position, user.getId(), null);
             
             return ResponseEntity.ok(new MessageResponse("Message broadcasted successfully"));
             
@@ -231,14 +400,15 @@ public class ChatController {
                     .body(new MessageResponse("Only administrators can clear chat history"));
             }
             
-            chatHistory.clear();
+            chatHistoryService.clear(ChatHistoryService.PUBLIC_CHANNEL);
+            chatReadStateService.clear(ChatHistoryService.PUBLIC_CHANNEL);
             
             // Notify all users about history clear
             ChatMessage systemMessage = new ChatMessage();
             systemMessage.setMessage("Chat history has been cleared by administrator");
             systemMessage.setSenderName("System");
             systemMessage.setCreatedAt(LocalDateTime.now());
-            systemMessage.setId(System.currentTimeMillis() + "_system");
+            systemMessage.setId(idGenerator.nextIdString());
             
             messagingTemplate.convertAndSend("/topic/public", systemMessage);
             
@@ -249,4 +419,68 @@ public class ChatController {
                 .body(new MessageResponse("Error clearing chat history: " + e.getMessage()));
         }
     }
+
+    private void sendRoomMessage(ChatRoom room, ChatMessage chatMessage, Principal principal) {
+        if (principal == null) {
+            return;
+        }
+        
+        try {
+            Optional<User> userOpt = userService.findByUsername(principal.getName());
+            
+            if (userOpt.isEmpty() || !chatRoomService.canJoin(userOpt.get(), room)) {
+                throw new IllegalStateException("Not a member of this room");
+            }
+            
+            // The sender is the authenticated user, whatever the payload claims
+            User user = userOpt.get();
+            chatMessage.setSenderId(user.getId());
+            chatMessage.setSenderName(user.getFirstName() + " " + user.getLastName());
+            chatMessage.setSenderRole(user.getRole());
+            chatMessage.setCreatedAt(LocalDateTime.now());
+            chatMessage.setId(idGenerator.nextIdString());
+            
+            // Only the room's subscribers receive it
+            messagingTemplate.convertAndSend(room.getDestination(), chatMessage);
+            
+            long position = chatHistoryService.append(room.getHistoryChannel(), chatMessage);
+            chatReadStateService.onSent(room.getHistoryChannel(), position, user.getId(), null);
+            
+        } catch (Exception e) {
+            ChatMessage errorMessage = new ChatMessage();
+            errorMessage.setMessage("Error sending message: " + e.getMessage());
+            errorMessage.setSenderName("System");
+            errorMessage.setCreatedAt(LocalDateTime.now());
+            
+            messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/private", errorMessage);
+        }
+    }
+
+    private ResponseEntity<?> getRoomHistory(ChatRoom room, String before, int limit, Authentication authentication) {
+        try {
+            Optional<User> userOpt = userService.findByUsername(authentication.getName());
+            
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User not found"));
+            }
+            
+            if (!chatRoomService.canJoin(userOpt.get(), room)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("Not a member of this room"));
+            }
+            
+            chatReadStateService.join(userOpt.get().getId(), room.getHistoryChannel());
+            
+            return ResponseEntity.ok(chatHistoryService.page(room.getHistoryChannel(), before, pageSize(limit)));
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error fetching chat history: " + e.getMessage()));
+        }
+    }
+
+    private static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
 }
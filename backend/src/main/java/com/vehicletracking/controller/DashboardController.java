@@ -12,6 +12,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @RestController
@@ -100,6 +101,9 @@ public class DashboardController {
     @GetMapping("/trip-analytics")
     public ResponseEntity<?> getTripAnalytics(@RequestParam(required = false) String startDate,
                                             @RequestParam(required = false) String endDate,
+                                            @RequestParam(required = false) String from,
+                                            @RequestParam(required = false) String to,
+                                            @RequestParam(required = false) String university,
                                             Authentication authentication) {
         try {
             String username = authentication.getName();
@@ -121,7 +125,11 @@ public class DashboardController {
             LocalDate start = startDate != null ? LocalDate.parse(startDate) : LocalDate.now().minusMonths(1);
             LocalDate end = endDate != null ? LocalDate.parse(endDate) : LocalDate.now();
             
-            return ResponseEntity.ok(dashboardService.getTripAnalytics(start, end));
+            // Exact times, e.g. 2024-05-01T08:00, take precedence over whole days
+            LocalDateTime fromTime = from != null ? LocalDateTime.parse(from) : start.atStartOfDay();
+            LocalDateTime toTime = to != null ? LocalDateTime.parse(to) : end.plusDays(1).atStartOfDay();
+            
+            return ResponseEntity.ok(dashboardService.getTripAnalytics(fromTime, toTime, university));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -2,11 +2,18 @@ package com.vehicletracking.controller;
 
 import com.vehicletracking.dto.MessageResponse;
 import com.vehicletracking.dto.LocationUpdateDto;
+import com.vehicletracking.dto.VehicleResponseDto;
+import com.vehicletracking.exception.BusinessLogicException;
+import com.vehicletracking.ingest.LocationIngestPipeline;
+import com.vehicletracking.ingest.LocationIngestPipeline.Admission;
+import com.vehicletracking.model.Trip;
 import com.vehicletracking.model.User;
 import com.vehicletracking.service.DashboardService;
+import com.vehicletracking.service.TripService;
 import com.vehicletracking.service.UserService;
 import com.vehicletracking.service.VehicleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -31,6 +38,12 @@ public class DriverController {
     @Autowired
     private VehicleService vehicleService;
 
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private LocationIngestPipeline locationIngestPipeline;
+
     /**
      * Get driver dashboard statistics
      */
@@ -102,7 +115,12 @@ public class DriverController {
                     .body(new MessageResponse("You are not authorized to update this vehicle's location"));
             }
             
-            return ResponseEntity.ok(vehicleService.updateVehicleLocation(vehicleId, locationUpdate));
+            if (locationIngestPipeline.submit(vehicleId, locationUpdate) == Admission.SATURATED) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(locationIngestPipeline.getRetryAfterSeconds()))
+                    .body(new MessageResponse("Location ingest is busy, retry later"));
+            }
+            return ResponseEntity.accepted().body(new MessageResponse("Location update accepted"));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -188,4 +206,138 @@ public class DriverController {
                 .body(new MessageResponse("Error updating driver profile: " + e.getMessage()));
         }
     }
+
+    /**
+     * Start a trip on the driver's assigned vehicle
+     */
+    @PostMapping("/trips/start")
+    public ResponseEntity<?> startTrip(@RequestBody Trip trip, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Optional<User> userOpt = userService.findByUsername(username);
+            
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User not found"));
+            }
+            
+            User driver = userOpt.get();
+            Optional<VehicleResponseDto> vehicleOpt = vehicleService.getVehicleByDriverId(driver.getId());
+            
+            if (vehicleOpt.isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(new MessageResponse("No vehicle assigned to this driver"));
+            }
+            
+            trip.setVehicleId(vehicleOpt.get().getId());
+            trip.setDriverId(driver.getId());
+            trip.setDriverName(driver.getFullName());
+            trip.setUniversity(vehicleOpt.get().getUniversity());
+            if (trip.getRouteName() == null) {
+                trip.setRouteName(vehicleOpt.get().getRouteName());
+            }
+            
+            return ResponseEntity.ok(tripService.startTrip(trip));
+            
+        } catch (BusinessLogicException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error starting trip: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Complete one of the driver's trips
+     */
+    @PostMapping("/trips/{tripId}/complete")
+    public ResponseEntity<?> completeTrip(@PathVariable String tripId, Authentication authentication) {
+        try {
+            ResponseEntity<?> denied = checkTripOwnership(tripId, authentication);
+            if (denied != null) {
+                return denied;
+            }
+            
+            return ResponseEntity.ok(tripService.completeTrip(tripId));
+            
+        } catch (BusinessLogicException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error completing trip: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Cancel one of the driver's trips
+     */
+    @PostMapping("/trips/{tripId}/cancel")
+    public ResponseEntity<?> cancelTrip(@PathVariable String tripId, Authentication authentication) {
+        try {
+            ResponseEntity<?> denied = checkTripOwnership(tripId, authentication);
+            if (denied != null) {
+                return denied;
+            }
+            
+            return ResponseEntity.ok(tripService.cancelTrip(tripId));
+            
+        } catch (BusinessLogicException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error cancelling trip: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the trip in progress on the driver's vehicle
+     */
+    @GetMapping("/trips/current")
+    public ResponseEntity<?> getCurrentTrip(Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Optional<User> userOpt = userService.findByUsername(username);
+            
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("User not found"));
+            }
+            
+            Optional<VehicleResponseDto> vehicleOpt = vehicleService.getVehicleByDriverId(userOpt.get().getId());
+            Optional<Trip> tripOpt = vehicleOpt.flatMap(v -> tripService.getActiveTripByVehicle(v.getId()));
+            
+            if (tripOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            return ResponseEntity.ok(tripOpt.get());
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new MessageResponse("Error fetching current trip: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> checkTripOwnership(String tripId, Authentication authentication) {
+        String username = authentication.getName();
+        Optional<User> userOpt = userService.findByUsername(username);
+        
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new MessageResponse("User not found"));
+        }
+        
+        Optional<Trip> tripOpt = tripService.getTripById(tripId);
+        if (tripOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new MessageResponse("Trip not found"));
+        }
+        
+        if (!userOpt.get().getId().equals(tripOpt.get().getDriverId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new MessageResponse("You are not authorized to modify this trip"));
+        }
+        
+        return null;
+    }
 }
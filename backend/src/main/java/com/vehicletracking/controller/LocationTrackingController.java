@@ -2,15 +2,28 @@ package com.vehicletracking.controller;
 
 import com.vehicletracking.dto.LocationUpdateDto;
 import com.vehicletracking.dto.MessageResponse;
+import com.vehicletracking.dto.VehicleMetadataDto;
 import com.vehicletracking.dto.VehicleResponseDto;
+import com.vehicletracking.dto.VehicleTelemetryDto;
+import com.vehicletracking.ingest.LocationIngestPipeline;
+import com.vehicletracking.ingest.LocationIngestPipeline.Admission;
 import com.vehicletracking.security.UserPrincipal;
+import com.vehicletracking.service.FleetSnapshotService;
+import com.vehicletracking.service.FleetSnapshotService.Snapshot;
+import com.vehicletracking.service.FleetVersionService;
 import com.vehicletracking.service.VehicleService;
+import com.vehicletracking.util.TelemetryBinaryCodec;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +36,15 @@ public class LocationTrackingController {
     @Autowired
     private VehicleService vehicleService;
     
+    @Autowired
+    private FleetVersionService fleetVersionService;
+    
+    @Autowired
+    private FleetSnapshotService fleetSnapshotService;
+    
+    @Autowired
+    private LocationIngestPipeline locationIngestPipeline;
+    
     // Update Vehicle Location (Driver only for their assigned vehicle)
     @PostMapping("/location/{vehicleId}")
     @PreAuthorize("hasRole('DRIVER')")
@@ -41,8 +63,12 @@ public class LocationTrackingController {
                     .body(new MessageResponse("You are not authorized to update location for this vehicle"));
             }
             
-            VehicleResponseDto response = vehicleService.updateVehicleLocation(vehicleId, locationUpdate);
-            return ResponseEntity.ok(response);
+            if (locationIngestPipeline.submit(vehicleId, locationUpdate) == Admission.SATURATED) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(locationIngestPipeline.getRetryAfterSeconds()))
+                    .body(new MessageResponse("Location ingest is busy, retry later"));
+            }
+            return ResponseEntity.accepted().body(new MessageResponse("Location update accepted"));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
@@ -65,9 +91,12 @@ public class LocationTrackingController {
                     .body(new MessageResponse("No vehicle assigned to this driver"));
             }
             
-            VehicleResponseDto response = vehicleService.updateVehicleLocation(
-                driverVehicle.get().getId(), locationUpdate);
-            return ResponseEntity.ok(response);
+            if (locationIngestPipeline.submit(driverVehicle.get().getId(), locationUpdate) == Admission.SATURATED) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(locationIngestPipeline.getRetryAfterSeconds()))
+                    .body(new MessageResponse("Location ingest is busy, retry later"));
+            }
+            return ResponseEntity.accepted().body(new MessageResponse("Location update accepted"));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
@@ -75,16 +104,85 @@ public class LocationTrackingController {
     
     // Get All Vehicles with Location (for tracking map)
     @GetMapping("/vehicles")
-    public ResponseEntity<List<VehicleResponseDto>> getAllVehiclesWithLocation() {
-        List<VehicleResponseDto> vehicles = vehicleService.getVehiclesWithLocation();
-        return ResponseEntity.ok(vehicles);
+    public ResponseEntity<byte[]> getAllVehiclesWithLocation(WebRequest request) {
+        boolean acceptsGzip = acceptsGzip(request);
+        // Unchanged polls are answered before any repository call
+        String eTag = fleetVersionService.getFleetETag(fleetVersionService.getFleetVersion(), acceptsGzip ? "gz" : null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return snapshotResponse(fleetSnapshotService.getFleetSnapshot(), acceptsGzip);
     }
     
     // Get Vehicles with Location by University
     @GetMapping("/vehicles/university/{university}")
-    public ResponseEntity<List<VehicleResponseDto>> getVehiclesWithLocationByUniversity(@PathVariable String university) {
-        List<VehicleResponseDto> vehicles = vehicleService.getActiveVehiclesWithLocationByUniversity(university);
-        return ResponseEntity.ok(vehicles);
+    public ResponseEntity<byte[]> getVehiclesWithLocationByUniversity(@PathVariable String university,
+                                                                      WebRequest request) {
+        boolean acceptsGzip = acceptsGzip(request);
+        String eTag = fleetVersionService.getFleetETag(fleetVersionService.getFleetVersion(), acceptsGzip ? "gz" : null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return snapshotResponse(fleetSnapshotService.getUniversitySnapshot(university), acceptsGzip);
+    }
+    
+    // Get Live Telemetry of All Vehicles (positions only, pair with /metadata)
+    // Served as JSON, or in the compact binary layout with Accept: application/x-vehicle-telemetry
+    @GetMapping("/telemetry")
+    public ResponseEntity<List<VehicleTelemetryDto>> getFleetTelemetry(WebRequest request) {
+        String eTag = fleetVersionService.getFleetETag(fleetVersionService.getFleetVersion(),
+            acceptsBinary(request) ? "bin" : null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(eTag)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(vehicleService.getFleetTelemetry());
+    }
+    
+    // Get Live Telemetry of Vehicles by University
+    @GetMapping("/telemetry/university/{university}")
+    public ResponseEntity<List<VehicleTelemetryDto>> getFleetTelemetryByUniversity(@PathVariable String university,
+                                                                                   WebRequest request) {
+        String eTag = fleetVersionService.getFleetETag(fleetVersionService.getFleetVersion(),
+            acceptsBinary(request) ? "bin" : null);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(eTag)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(vehicleService.getFleetTelemetryByUniversity(university));
+    }
+    
+    // Get Static Vehicle Details, revalidated by ETag
+    @GetMapping("/metadata")
+    public ResponseEntity<List<VehicleMetadataDto>> getFleetMetadata(WebRequest request) {
+        String eTag = fleetVersionService.getMetadataETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(eTag)
+            .cacheControl(CacheControl.noCache())
+            .body(vehicleService.getFleetMetadata());
+    }
+    
+    // Get Static Vehicle Details by University, revalidated by ETag
+    @GetMapping("/metadata/university/{university}")
+    public ResponseEntity<List<VehicleMetadataDto>> getFleetMetadataByUniversity(@PathVariable String university,
+                                                                                 WebRequest request) {
+        String eTag = fleetVersionService.getMetadataETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(eTag)
+            .cacheControl(CacheControl.noCache())
+            .body(vehicleService.getFleetMetadataByUniversity(university));
     }
     
     // Get Driver's Current Vehicle Location
@@ -127,4 +225,28 @@ public class LocationTrackingController {
             return ResponseEntity.notFound().build();
         }
     }
-} 
\ No newline at end of file
+    
+    // Write a pre-serialized snapshot, compressed when the client accepts it
+    private ResponseEntity<byte[]> snapshotResponse(Snapshot snapshot, boolean acceptsGzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(fleetVersionService.getFleetETag(snapshot.getVersion(), acceptsGzip ? "gz" : null))
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        
+        if (acceptsGzip && snapshot.hasGzip()) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return response.body(snapshot.getJson());
+    }
+    
+    private static boolean acceptsBinary(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(TelemetryBinaryCodec.MEDIA_TYPE);
+    }
+    
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+}
\ No newline at end of file
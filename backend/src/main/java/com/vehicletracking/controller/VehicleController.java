@@ -3,13 +3,16 @@ package com.vehicletracking.controller;
 import com.vehicletracking.dto.*;
 import com.vehicletracking.model.VehicleType;
 import com.vehicletracking.model.VehicleStatus;
+import com.vehicletracking.service.FleetVersionService;
 import com.vehicletracking.service.VehicleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +25,9 @@ public class VehicleController {
     @Autowired
     private VehicleService vehicleService;
     
+    @Autowired
+    private FleetVersionService fleetVersionService;
+    
     // Create Vehicle (Admin only)
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -82,9 +88,14 @@ public class VehicleController {
     
     // Get All Vehicles
     @GetMapping
-    public ResponseEntity<List<VehicleResponseDto>> getAllVehicles() {
+    public ResponseEntity<List<VehicleResponseDto>> getAllVehicles(WebRequest request) {
+        // Unchanged polls are answered before any repository call
+        String eTag = fleetVersionService.getFleetETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         List<VehicleResponseDto> vehicles = vehicleService.getAllVehicles();
-        return ResponseEntity.ok(vehicles);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(vehicles);
     }
     
     // Get Vehicles by University
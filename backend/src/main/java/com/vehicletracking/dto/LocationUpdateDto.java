@@ -19,6 +19,10 @@ public class LocationUpdateDto {
     private Double speed; // km/h
     private String direction; // N, NE, E, SE, S, SW, W, NW
     private Double fuelLevel; // percentage
+    private Long timestamp; // device fix time, epoch millis
+    
+    @DecimalMin(value = "0.0", message = "Accuracy must not be negative")
+    private Double accuracy; // meters
     
     // Constructors
     public LocationUpdateDto() {}
@@ -68,4 +72,20 @@ public class LocationUpdateDto {
     public void setFuelLevel(Double fuelLevel) {
         this.fuelLevel = fuelLevel;
     }
-} 
\ No newline at end of file
+    
+    public Long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public Double getAccuracy() {
+        return accuracy;
+    }
+    
+    public void setAccuracy(Double accuracy) {
+        this.accuracy = accuracy;
+    }
+}
\ No newline at end of file
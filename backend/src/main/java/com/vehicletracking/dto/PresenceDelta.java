@@ -0,0 +1,31 @@
+package com.vehicletracking.dto;
+
+public class PresenceDelta {
+    private String userName;
+    private String room;
+    private boolean present;
+    private int count;
+
+    public PresenceDelta() {}
+
+    public PresenceDelta(String userName, String room, boolean present, int count) {
+        this.userName = userName;
+        this.room = room;
+        this.present = present;
+        this.count = count;
+    }
+
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+
+    // Null for changes of the online users
+    public String getRoom() { return room; }
+    public void setRoom(String room) { this.room = room; }
+
+    public boolean isPresent() { return present; }
+    public void setPresent(boolean present) { this.present = present; }
+
+    // Online users, or sessions in the room, after the change
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+}
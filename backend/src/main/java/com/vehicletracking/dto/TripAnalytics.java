@@ -11,6 +11,7 @@ public class TripAnalytics {
     private Map<String, Long> tripsByStatus;
     private Map<LocalDate, Long> tripsOverTime;
     private List<String> popularRoutes;
+    private Map<String, Long> tripsByUniversity;
     
     public TripAnalytics() {}
     
@@ -31,4 +32,7 @@ public class TripAnalytics {
     
     public List<String> getPopularRoutes() { return popularRoutes; }
     public void setPopularRoutes(List<String> popularRoutes) { this.popularRoutes = popularRoutes; }
+    
+    public Map<String, Long> getTripsByUniversity() { return tripsByUniversity; }
+    public void setTripsByUniversity(Map<String, Long> tripsByUniversity) { this.tripsByUniversity = tripsByUniversity; }
 }
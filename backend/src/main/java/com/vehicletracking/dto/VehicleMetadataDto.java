@@ -0,0 +1,178 @@
+package com.vehicletracking.dto;
+
+import com.vehicletracking.model.VehicleType;
+import com.vehicletracking.model.VehicleStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Static vehicle details that change rarely, fetched once by map and admin screens.
+ * Live position is served separately by {@link VehicleTelemetryDto}.
+ */
+public class VehicleMetadataDto {
+    
+    private String id;
+    private String vehicleNumber;
+    private String model;
+    private String brand;
+    private Integer capacity;
+    private VehicleType vehicleType;
+    private VehicleStatus status;
+    private String university;
+    
+    // Driver information
+    private String driverId;
+    private String driverName;
+    private String driverPhone;
+    
+    // Route information
+    private String routeName;
+    private String routeDescription;
+    
+    // Vehicle details
+    private LocalDateTime lastMaintenance;
+    private LocalDateTime nextMaintenance;
+    
+    // Status
+    private Boolean isActive;
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public VehicleMetadataDto() {}
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getVehicleNumber() {
+        return vehicleNumber;
+    }
+    
+    public void setVehicleNumber(String vehicleNumber) {
+        this.vehicleNumber = vehicleNumber;
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    public void setModel(String model) {
+        this.model = model;
+    }
+    
+    public String getBrand() {
+        return brand;
+    }
+    
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+    
+    public Integer getCapacity() {
+        return capacity;
+    }
+    
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+    
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+    
+    public void setVehicleType(VehicleType vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+    
+    public VehicleStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(VehicleStatus status) {
+        this.status = status;
+    }
+    
+    public String getUniversity() {
+        return university;
+    }
+    
+    public void setUniversity(String university) {
+        this.university = university;
+    }
+    
+    public String getDriverId() {
+        return driverId;
+    }
+    
+    public void setDriverId(String driverId) {
+        this.driverId = driverId;
+    }
+    
+    public String getDriverName() {
+        return driverName;
+    }
+    
+    public void setDriverName(String driverName) {
+        this.driverName = driverName;
+    }
+    
+    public String getDriverPhone() {
+        return driverPhone;
+    }
+    
+    public void setDriverPhone(String driverPhone) {
+        this.driverPhone = driverPhone;
+    }
+    
+    public String getRouteName() {
+        return routeName;
+    }
+    
+    public void setRouteName(String routeName) {
+        this.routeName = routeName;
+    }
+    
+    public String getRouteDescription() {
+        return routeDescription;
+    }
+    
+    public void setRouteDescription(String routeDescription) {
+        this.routeDescription = routeDescription;
+    }
+    
+    public LocalDateTime getLastMaintenance() {
+        return lastMaintenance;
+    }
+    
+    public void setLastMaintenance(LocalDateTime lastMaintenance) {
+        this.lastMaintenance = lastMaintenance;
+    }
+    
+    public LocalDateTime getNextMaintenance() {
+        return nextMaintenance;
+    }
+    
+    public void setNextMaintenance(LocalDateTime nextMaintenance) {
+        this.nextMaintenance = nextMaintenance;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
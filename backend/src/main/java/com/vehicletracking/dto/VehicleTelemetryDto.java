@@ -0,0 +1,89 @@
+package com.vehicletracking.dto;
+
+import com.vehicletracking.model.VehicleStatus;
+
+/**
+ * Live position of a vehicle, kept small for high-frequency tracking responses.
+ * Static details are served separately by {@link VehicleMetadataDto}.
+ */
+public class VehicleTelemetryDto {
+    
+    private String id;
+    private Double lat;
+    private Double lon;
+    private Double speed; // km/h
+    private String heading; // N, NE, E, SE, S, SW, W, NW
+    private Long ts; // epoch millis of the last location update
+    private VehicleStatus status;
+    
+    // Constructors
+    public VehicleTelemetryDto() {}
+    
+    public VehicleTelemetryDto(String id, Double lat, Double lon, Double speed, String heading, Long ts,
+                               VehicleStatus status) {
+        this.id = id;
+        this.lat = lat;
+        this.lon = lon;
+        this.speed = speed;
+        this.heading = heading;
+        this.ts = ts;
+        this.status = status;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public Double getLat() {
+        return lat;
+    }
+    
+    public void setLat(Double lat) {
+        this.lat = lat;
+    }
+    
+    public Double getLon() {
+        return lon;
+    }
+    
+    public void setLon(Double lon) {
+        this.lon = lon;
+    }
+    
+    public Double getSpeed() {
+        return speed;
+    }
+    
+    public void setSpeed(Double speed) {
+        this.speed = speed;
+    }
+    
+    public String getHeading() {
+        return heading;
+    }
+    
+    public void setHeading(String heading) {
+        this.heading = heading;
+    }
+    
+    public Long getTs() {
+        return ts;
+    }
+    
+    public void setTs(Long ts) {
+        this.ts = ts;
+    }
+    
+    public VehicleStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(VehicleStatus status) {
+        this.status = status;
+    }
+}
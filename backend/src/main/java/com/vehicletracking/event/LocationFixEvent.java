@@ -0,0 +1,41 @@
+package com.vehicletracking.event;
+
+/**
+ * Published for every accepted vehicle location fix
+ */
+public class LocationFixEvent {
+    
+    private final String vehicleId;
+    private final double latitude;
+    private final double longitude;
+    private final Double speed;
+    private final long fixTimeMillis;
+    
+    public LocationFixEvent(String vehicleId, double latitude, double longitude, Double speed, long fixTimeMillis) {
+        this.vehicleId = vehicleId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.speed = speed;
+        this.fixTimeMillis = fixTimeMillis;
+    }
+    
+    public String getVehicleId() {
+        return vehicleId;
+    }
+    
+    public double getLatitude() {
+        return latitude;
+    }
+    
+    public double getLongitude() {
+        return longitude;
+    }
+    
+    public Double getSpeed() {
+        return speed;
+    }
+    
+    public long getFixTimeMillis() {
+        return fixTimeMillis;
+    }
+}
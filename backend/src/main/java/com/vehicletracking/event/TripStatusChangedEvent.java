@@ -0,0 +1,23 @@
+package com.vehicletracking.event;
+
+import com.vehicletracking.model.Trip;
+import com.vehicletracking.model.TripStatus;
+
+public class TripStatusChangedEvent {
+    
+    private final Trip trip;
+    private final TripStatus previousStatus;
+    
+    public TripStatusChangedEvent(Trip trip, TripStatus previousStatus) {
+        this.trip = trip;
+        this.previousStatus = previousStatus;
+    }
+    
+    public Trip getTrip() {
+        return trip;
+    }
+    
+    public TripStatus getPreviousStatus() {
+        return previousStatus;
+    }
+}
@@ -0,0 +1,16 @@
+package com.vehicletracking.event;
+
+import com.vehicletracking.model.User;
+
+public class UserCreatedEvent {
+    
+    private final User user;
+    
+    public UserCreatedEvent(User user) {
+        this.user = user;
+    }
+    
+    public User getUser() {
+        return user;
+    }
+}
@@ -0,0 +1,19 @@
+package com.vehicletracking.event;
+
+import com.vehicletracking.model.Vehicle;
+
+/**
+ * Published after a vehicle's metadata, status, driver or active flag is saved
+ */
+public class VehicleChangedEvent {
+    
+    private final Vehicle vehicle;
+    
+    public VehicleChangedEvent(Vehicle vehicle) {
+        this.vehicle = vehicle;
+    }
+    
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+}
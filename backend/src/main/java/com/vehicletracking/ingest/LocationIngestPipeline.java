@@ -0,0 +1,392 @@
+package com.vehicletracking.ingest;
+
+import com.vehicletracking.config.SecurityConstants;
+import com.vehicletracking.dto.LocationUpdateDto;
+import com.vehicletracking.dto.VehicleResponseDto;
+import com.vehicletracking.dto.VehicleTelemetryDto;
+import com.vehicletracking.event.LocationFixEvent;
+import com.vehicletracking.exception.BusinessLogicException;
+import com.vehicletracking.service.ClockSkewEstimator;
+import com.vehicletracking.service.LiveLocationStore;
+import com.vehicletracking.service.LiveLocationStore.LiveFix;
+import com.vehicletracking.service.OdometerService;
+import com.vehicletracking.service.VehicleService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous location ingest. Fixes are enqueued on a bounded ring buffer chosen by vehicle id
+ * and the request returns at once; one worker per shard runs the stages over whole batches:
+ * filter (clock correction and ordering), live-state update, odometer, a single persistence
+ * write per vehicle and batch followed by its fix events, and fan-out to university topics,
+ * as JSON and, on their binary sub-topics, in the binary telemetry layout.
+ * A vehicle always maps to the same shard, so its fixes are processed in arrival order.
+ *
+ * Admission follows the shard's queue depth. Above the high watermark only fixes newer than
+ * everything already queued for the vehicle are admitted, and intermediate fixes of a batch are
+ * reduced to history; above the critical watermark they are dropped; a full shard refuses the fix.
+ */
+@Service
+public class LocationIngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationIngestPipeline.class);
+
+    public static final String VEHICLE_TOPIC_PREFIX = "/topic/vehicles/";
+
+    // Suffix of the university topics carrying the same batches in the binary telemetry layout
+    public static final String BINARY_TOPIC_SUFFIX = "/binary";
+
+    // Idle workers re-check their buffer at least this often
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    public enum Admission {
+        ACCEPTED, SHED, SATURATED
+    }
+
+    public enum ShedReason {
+        // Older than a fix already queued for the vehicle while above the high watermark
+        SUPERSEDED,
+        // Intermediate fix of a batch that only fed the odometer
+        HISTORY_ONLY,
+        // Intermediate fix of a batch dropped above the critical watermark
+        DROPPED_UNDER_LOAD,
+        // Refused because the shard was full
+        SATURATED,
+        // A newer fix was already live when the fix was processed
+        OUT_OF_ORDER,
+        // Failed clock or vehicle checks during processing
+        REJECTED
+    }
+
+    @Value("${app.ingest.shards:4}")
+    private int shardCount;
+
+    @Value("${app.ingest.queue.capacity:4096}")
+    private int queueCapacity;
+
+    @Value("${app.ingest.batch.size:256}")
+    private int batchSize;
+
+    @Value("${app.ingest.high.watermark:0.75}")
+    private double highWatermark;
+
+    @Value("${app.ingest.critical.watermark:0.9}")
+    private double criticalWatermark;
+
+    @Value("${app.ingest.retry.after.seconds:2}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private LiveLocationStore liveLocationStore;
+
+    @Autowired
+    private ClockSkewEstimator clockSkewEstimator;
+
+    @Autowired
+    private OdometerService odometerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private Shard[] shards;
+    private volatile boolean running;
+
+    // Newest client fix time queued per vehicle, used to recognise superseded fixes under load
+    private final Map<String, Long> newestQueued = new ConcurrentHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final Map<ShedReason, LongAdder> shed = new EnumMap<>(ShedReason.class);
+
+    public LocationIngestPipeline() {
+        for (ShedReason reason : ShedReason.values()) {
+            shed.put(reason, new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        shards = new Shard[Math.max(1, shardCount)];
+        running = true;
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = new Shard(new IngestRingBuffer<>(queueCapacity), highWatermark, criticalWatermark);
+            shard.worker = new Thread(() -> runWorker(shard), "location-ingest-" + i);
+            shard.worker.setDaemon(true);
+            shards[i] = shard;
+        }
+        for (Shard shard : shards) {
+            shard.worker.start();
+        }
+        logger.info("Location ingest started with {} shards of {} fixes", shards.length,
+            shards[0].buffer.capacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.worker);
+        }
+        for (Shard shard : shards) {
+            shard.worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Offer a fix for processing. A shed fix needs no retry, a saturated one should be retried
+     * after {@link #getRetryAfterSeconds()}.
+     */
+    public Admission submit(String vehicleId, LocationUpdateDto locationUpdate) {
+        if (locationUpdate.getAccuracy() != null
+                && locationUpdate.getAccuracy() > SecurityConstants.MIN_LOCATION_ACCURACY_METERS) {
+            throw new BusinessLogicException("Fix accuracy is too low", "INACCURATE_FIX");
+        }
+
+        long receivedMillis = System.currentTimeMillis();
+        long clientTime = locationUpdate.getTimestamp() != null ? locationUpdate.getTimestamp() : receivedMillis;
+        Shard shard = shards[Math.floorMod(vehicleId.hashCode(), shards.length)];
+
+        if (shard.buffer.size() >= shard.highWatermark && !isNewestQueued(vehicleId, clientTime)) {
+            shed.get(ShedReason.SUPERSEDED).increment();
+            return Admission.SHED;
+        }
+
+        if (!shard.buffer.offer(new IngestedFix(vehicleId, locationUpdate, receivedMillis))) {
+            shed.get(ShedReason.SATURATED).increment();
+            return Admission.SATURATED;
+        }
+        newestQueued.merge(vehicleId, clientTime, Math::max);
+        accepted.increment();
+
+        if (shard.sleeping.get()) {
+            LockSupport.unpark(shard.worker);
+        }
+        return Admission.ACCEPTED;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Queue depths and admission counts, with shed counts per reason
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+
+        List<Integer> depths = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            depths.add(shard.buffer.size());
+        }
+        statistics.put("shardCapacity", shards[0].buffer.capacity());
+        statistics.put("queueDepths", depths);
+        statistics.put("accepted", accepted.sum());
+        statistics.put("processed", processed.sum());
+
+        Map<String, Long> shedCounts = new LinkedHashMap<>();
+        shed.forEach((reason, count) -> shedCounts.put(reason.name(), count.sum()));
+        statistics.put("shed", shedCounts);
+
+        return statistics;
+    }
+
+    private boolean isNewestQueued(String vehicleId, long clientTime) {
+        Long newest = newestQueued.get(vehicleId);
+        return newest == null || clientTime > newest;
+    }
+
+    private void runWorker(Shard shard) {
+        List<IngestedFix> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (shard.buffer.drainTo(batch, batchSize) == 0) {
+                shard.sleeping.set(true);
+                if (shard.buffer.size() == 0 && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                shard.sleeping.set(false);
+                continue;
+            }
+
+            try {
+                process(batch, shard.buffer.size(), shard);
+            } catch (RuntimeException e) {
+                logger.error("Location ingest batch of {} fixes failed: {}", batch.size(), e.getMessage(), e);
+            }
+            processed.add(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void process(List<IngestedFix> batch, int backlog, Shard shard) {
+        // Under load only the last fix of each vehicle in the batch goes through every stage
+        Map<String, Integer> lastIndex = new HashMap<>();
+        if (backlog >= shard.highWatermark) {
+            for (int i = 0; i < batch.size(); i++) {
+                lastIndex.put(batch.get(i).vehicleId, i);
+            }
+        }
+        boolean critical = backlog >= shard.criticalWatermark;
+
+        // Vehicles looked up once per batch; insertion order keeps the persistence order stable
+        Map<String, VehicleResponseDto> moved = new LinkedHashMap<>();
+        Map<String, List<LiveFix>> movedFixes = new HashMap<>();
+        Map<String, VehicleResponseDto> vehicles = new HashMap<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            IngestedFix ingested = batch.get(i);
+            Integer last = lastIndex.get(ingested.vehicleId);
+            boolean intermediate = last != null && last != i;
+            if (intermediate && critical) {
+                shed.get(ShedReason.DROPPED_UNDER_LOAD).increment();
+                continue;
+            }
+
+            try {
+                VehicleResponseDto vehicle = vehicles.computeIfAbsent(ingested.vehicleId,
+                    id -> vehicleService.getVehicleById(id).orElse(null));
+                if (vehicle == null) {
+                    logger.debug("Dropped fix of unknown vehicle {}", ingested.vehicleId);
+                    shed.get(ShedReason.REJECTED).increment();
+                    continue;
+                }
+
+                if (intermediate) {
+                    LiveFix fix = correct(ingested);
+                    odometerService.recordFix(ingested.vehicleId, fix.getLatitude(), fix.getLongitude(),
+                        fix.getFixTimeMillis());
+                    shed.get(ShedReason.HISTORY_ONLY).increment();
+                    continue;
+                }
+
+                LiveFix fix = filter(ingested, vehicle);
+                if (fix == null) {
+                    shed.get(ShedReason.OUT_OF_ORDER).increment();
+                    continue;
+                }
+                odometerService.recordFix(ingested.vehicleId, fix.getLatitude(), fix.getLongitude(),
+                    fix.getFixTimeMillis());
+                moved.put(ingested.vehicleId, vehicle);
+                movedFixes.computeIfAbsent(ingested.vehicleId, id -> new ArrayList<>()).add(fix);
+            } catch (RuntimeException e) {
+                logger.debug("Rejected fix of vehicle {}: {}", ingested.vehicleId, e.getMessage());
+                shed.get(ShedReason.REJECTED).increment();
+            }
+        }
+
+        Map<String, List<VehicleTelemetryDto>> byUniversity = new HashMap<>();
+        moved.forEach((vehicleId, vehicle) -> {
+            VehicleTelemetryDto telemetry;
+            try {
+                telemetry = vehicleService.saveLiveLocation(vehicleId);
+            } catch (RuntimeException e) {
+                // The next fix of the vehicle saves its latest location again
+                logger.warn("Failed to save live location of vehicle {}: {}", vehicleId, e.getMessage());
+                return;
+            }
+
+            // Fix events move the fleet version, so they may only follow the save
+            publishFixes(vehicleId, movedFixes.get(vehicleId));
+            if (vehicle.getUniversity() != null) {
+                byUniversity.computeIfAbsent(vehicle.getUniversity(), u -> new ArrayList<>()).add(telemetry);
+            }
+        });
+
+        byUniversity.forEach((university, telemetry) -> {
+            messagingTemplate.convertAndSend(VEHICLE_TOPIC_PREFIX + university, telemetry);
+            messagingTemplate.convertAndSend(VEHICLE_TOPIC_PREFIX + university + BINARY_TOPIC_SUFFIX, telemetry,
+                binaryHeaders());
+        });
+    }
+
+    // Octet-stream selects the binary telemetry converter and binary WebSocket frames
+    private static MessageHeaders binaryHeaders() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    /**
+     * Correct the fix time and make the fix the vehicle's latest, or return null if a newer one is held
+     */
+    private LiveFix filter(IngestedFix ingested, VehicleResponseDto vehicle) {
+        // After a restart, order new fixes after the persisted one
+        if (vehicle.getLastLocationUpdate() != null && vehicle.getCurrentLatitude() != null
+                && vehicle.getCurrentLongitude() != null) {
+            liveLocationStore.seed(ingested.vehicleId, new LiveFix(vehicle.getCurrentLatitude(),
+                vehicle.getCurrentLongitude(), vehicle.getCurrentSpeed(), vehicle.getDirection(),
+                vehicle.getFuelLevel(),
+                vehicle.getLastLocationUpdate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+
+        LiveFix fix = correct(ingested);
+        return liveLocationStore.offer(ingested.vehicleId, fix) ? fix : null;
+    }
+
+    private LiveFix correct(IngestedFix ingested) {
+        LocationUpdateDto update = ingested.update;
+        long fixTimeMillis = update.getTimestamp() != null
+            ? clockSkewEstimator.toServerTime(ingested.vehicleId, update.getTimestamp(), ingested.receivedMillis)
+            : ingested.receivedMillis;
+        return new LiveFix(update.getLatitude(), update.getLongitude(), update.getSpeed(),
+            update.getDirection(), update.getFuelLevel(), fixTimeMillis);
+    }
+
+    private void publishFixes(String vehicleId, List<LiveFix> fixes) {
+        for (LiveFix fix : fixes) {
+            eventPublisher.publishEvent(new LocationFixEvent(vehicleId, fix.getLatitude(), fix.getLongitude(),
+                fix.getSpeed(), fix.getFixTimeMillis()));
+        }
+    }
+
+    private static final class Shard {
+        private final IngestRingBuffer<IngestedFix> buffer;
+        private final int highWatermark;
+        private final int criticalWatermark;
+        private final AtomicBoolean sleeping = new AtomicBoolean();
+        private Thread worker;
+
+        private Shard(IngestRingBuffer<IngestedFix> buffer, double highWatermark, double criticalWatermark) {
+            this.buffer = buffer;
+            this.highWatermark = (int) (buffer.capacity() * highWatermark);
+            this.criticalWatermark = (int) (buffer.capacity() * criticalWatermark);
+        }
+    }
+
+    private static final class IngestedFix {
+        private final String vehicleId;
+        private final LocationUpdateDto update;
+        private final long receivedMillis;
+
+        private IngestedFix(String vehicleId, LocationUpdateDto update, long receivedMillis) {
+            this.vehicleId = vehicleId;
+            this.update = update;
+            this.receivedMillis = receivedMillis;
+        }
+    }
+}
@@ -22,7 +22,8 @@ public class Announcement {
     
     private Boolean isPinned = false;
     
-    private Boolean isActive = true;
+    // Cleared by the expiry sweeper thread and read by request threads
+    private volatile Boolean isActive = true;
     
     private LocalDateTime expiresAt;
     
@@ -88,8 +89,9 @@ public class Announcement {
     
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { 
-        this.isActive = isActive;
+        // The volatile write last, so readers seeing it see the update time too
         this.updatedAt = LocalDateTime.now();
+        this.isActive = isActive;
     }
     
     public LocalDateTime getExpiresAt() { return expiresAt; }
@@ -130,10 +130,3 @@ public class ChatMessage {
         this.readAt = LocalDateTime.now();
     }
 }
-
-enum ChatMessageType {
-    USER_MESSAGE,
-    PRIVATE_MESSAGE,
-    SYSTEM_MESSAGE,
-    ANNOUNCEMENT
-}
@@ -0,0 +1,8 @@
+package com.vehicletracking.model;
+
+public enum ChatMessageType {
+    USER_MESSAGE,
+    PRIVATE_MESSAGE,
+    SYSTEM_MESSAGE,
+    ANNOUNCEMENT
+}
\ No newline at end of file
@@ -6,6 +6,9 @@ import java.util.List;
 
 public class Trip {
     
+    // Completed trips arriving within this margin of the schedule count as on time
+    private static final long ON_TIME_GRACE_MINUTES = 5;
+    
     private String id;
     
     @NotBlank(message = "Vehicle ID is required")
@@ -16,6 +19,8 @@ public class Trip {
     
     private String driverName;
     
+    private String university;
+    
     @NotBlank(message = "Route name is required")
     @Size(min = 1, max = 100, message = "Route name must be between 1 and 100 characters")
     private String routeName;
@@ -100,6 +105,9 @@ public class Trip {
     public String getDriverName() { return driverName; }
     public void setDriverName(String driverName) { this.driverName = driverName; }
     
+    public String getUniversity() { return university; }
+    public void setUniversity(String university) { this.university = university; }
+    
     public String getRouteName() { return routeName; }
     public void setRouteName(String routeName) { 
         this.routeName = routeName;
@@ -224,6 +232,11 @@ public class Trip {
         return actualEndTime != null;
     }
     
+    public boolean isOnTime() {
+        return scheduledEndTime != null && actualEndTime != null &&
+               !actualEndTime.isAfter(scheduledEndTime.plusMinutes(ON_TIME_GRACE_MINUTES));
+    }
+    
     public void startTrip() {
         this.status = TripStatus.IN_PROGRESS;
         this.actualStartTime = LocalDateTime.now();
@@ -246,14 +259,6 @@ public class Trip {
     }
 }
 
-enum TripStatus {
-    SCHEDULED,
-    IN_PROGRESS,
-    COMPLETED,
-    CANCELLED,
-    DELAYED
-}
-
 class TripWaypoint {
     private String name;
     private Double latitude;
@@ -0,0 +1,9 @@
+package com.vehicletracking.model;
+
+public enum TripStatus {
+    SCHEDULED,
+    IN_PROGRESS,
+    COMPLETED,
+    CANCELLED,
+    DELAYED
+}
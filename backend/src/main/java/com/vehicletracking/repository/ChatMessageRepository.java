@@ -0,0 +1,25 @@
+package com.vehicletracking.repository;
+
+import com.vehicletracking.model.ChatMessage;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChatMessageRepository {
+
+    // Message ids must sort in the order the messages were sent
+    void append(String conversationId, ChatMessage message);
+
+    // Up to limit messages sent before the given id, or the newest ones without it, oldest first
+    List<ChatMessage> findBefore(String conversationId, String beforeId, int limit);
+
+    // Record the given messages as read
+    void markRead(String conversationId, List<String> messageIds, LocalDateTime readAt);
+
+    // Record the unread messages addressed to the reader that were sent before the given id as read
+    void markReadBefore(String conversationId, String readerId, String beforeId, LocalDateTime readAt);
+
+    void deleteConversation(String conversationId);
+}
\ No newline at end of file
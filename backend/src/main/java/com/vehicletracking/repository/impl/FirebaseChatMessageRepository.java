@@ -0,0 +1,226 @@
+package com.vehicletracking.repository.impl;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.cloud.FirestoreClient;
+import com.vehicletracking.model.ChatMessage;
+import com.vehicletracking.model.ChatMessageType;
+import com.vehicletracking.model.Role;
+import com.vehicletracking.repository.ChatMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * One messages subcollection per conversation, keyed by message id. Pages are read through the
+ * document id index, so a page costs the same at any depth of the conversation.
+ */
+@Repository
+public class FirebaseChatMessageRepository implements ChatMessageRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseChatMessageRepository.class);
+
+    private static final String COLLECTION_NAME = "chatConversations";
+    private static final String MESSAGES = "messages";
+
+    // Firestore limit on writes per batch
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    private Firestore getFirestore() {
+        return FirestoreClient.getFirestore();
+    }
+
+    private CollectionReference messages(String conversationId) {
+        // Document ids may not contain slashes
+        return getFirestore()
+                .collection(COLLECTION_NAME)
+                .document(conversationId.replace('/', '_'))
+                .collection(MESSAGES);
+    }
+
+    @Override
+    public void append(String conversationId, ChatMessage message) {
+        // Senders are not held up by the write; recent history is served from memory meanwhile
+        ApiFuture<WriteResult> write = messages(conversationId).document(message.getId()).set(messageToMap(message));
+        ApiFutures.addCallback(write, new ApiFutureCallback<WriteResult>() {
+            @Override
+            public void onSuccess(WriteResult result) {
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                logger.error("Failed to store chat message {} of {}: {}", message.getId(), conversationId,
+                    throwable.getMessage());
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public List<ChatMessage> findBefore(String conversationId, String beforeId, int limit) {
+        try {
+            Query query = messages(conversationId)
+                    .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+            if (beforeId != null) {
+                query = query.startAfter(beforeId);
+            }
+
+            List<ChatMessage> page = new ArrayList<>();
+            for (DocumentSnapshot document : query.limit(limit).get().get().getDocuments()) {
+                page.add(documentToMessage(document));
+            }
+            Collections.reverse(page);
+            return page;
+        } catch (InterruptedException | ExecutionException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public void markRead(String conversationId, List<String> messageIds, java.time.LocalDateTime readAt) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("isRead", true);
+        fields.put("readAt", com.google.cloud.Timestamp.of(java.sql.Timestamp.valueOf(readAt)));
+
+        CollectionReference collection = messages(conversationId);
+        for (int from = 0; from < messageIds.size(); from += WRITE_BATCH_SIZE) {
+            WriteBatch batch = getFirestore().batch();
+            for (String id : messageIds.subList(from, Math.min(from + WRITE_BATCH_SIZE, messageIds.size()))) {
+                // Merged, since the message itself may still be on its way to the log
+                batch.set(collection.document(id), fields, SetOptions.merge());
+            }
+            ApiFutures.addCallback(batch.commit(), new ApiFutureCallback<List<WriteResult>>() {
+                @Override
+                public void onSuccess(List<WriteResult> results) {
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    logger.error("Failed to store read receipts of {}: {}", conversationId, throwable.getMessage());
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
+
+    @Override
+    public void markReadBefore(String conversationId, String readerId, String beforeId, java.time.LocalDateTime readAt) {
+        ApiFuture<QuerySnapshot> unread = messages(conversationId)
+                .whereEqualTo("recipientId", readerId)
+                .whereEqualTo("isRead", false)
+                .get();
+        ApiFutures.addCallback(unread, new ApiFutureCallback<QuerySnapshot>() {
+            @Override
+            public void onSuccess(QuerySnapshot snapshot) {
+                List<String> ids = new ArrayList<>();
+                for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                    if (document.getId().compareTo(beforeId) < 0) {
+                        ids.add(document.getId());
+                    }
+                }
+                markRead(conversationId, ids, readAt);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                logger.error("Failed to find unread messages of {}: {}", conversationId, throwable.getMessage());
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public void deleteConversation(String conversationId) {
+        try {
+            CollectionReference collection = messages(conversationId);
+            List<QueryDocumentSnapshot> documents;
+            do {
+                documents = collection.limit(WRITE_BATCH_SIZE).get().get().getDocuments();
+                WriteBatch batch = getFirestore().batch();
+                for (QueryDocumentSnapshot document : documents) {
+                    batch.delete(document.getReference());
+                }
+                batch.commit().get();
+            } while (documents.size() == WRITE_BATCH_SIZE);
+        } catch (InterruptedException | ExecutionException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to delete chat conversation", e);
+        }
+    }
+
+    private ChatMessage documentToMessage(DocumentSnapshot document) {
+        ChatMessage message = new ChatMessage();
+        message.setId(document.getId());
+        message.setMessage(document.getString("message"));
+        message.setSenderId(document.getString("senderId"));
+        message.setSenderName(document.getString("senderName"));
+        message.setRecipientId(document.getString("recipientId"));
+        message.setRecipientName(document.getString("recipientName"));
+
+        String senderRole = document.getString("senderRole");
+        if (senderRole != null) {
+            message.setSenderRole(Role.valueOf(senderRole));
+        }
+
+        String recipientRole = document.getString("recipientRole");
+        if (recipientRole != null) {
+            message.setRecipientRole(Role.valueOf(recipientRole));
+        }
+
+        String type = document.getString("type");
+        if (type != null) {
+            message.setType(ChatMessageType.valueOf(type));
+        }
+
+        // setMessage marks the message as edited, so restore the stored flags afterwards
+        Boolean isEdited = document.getBoolean("isEdited");
+        message.setIsEdited(isEdited != null ? isEdited : false);
+        message.setEditedAt(toLocalDateTime(document.getTimestamp("editedAt")));
+
+        Boolean isRead = document.getBoolean("isRead");
+        message.setIsRead(isRead != null ? isRead : false);
+        message.setReadAt(toLocalDateTime(document.getTimestamp("readAt")));
+
+        message.setCreatedAt(toLocalDateTime(document.getTimestamp("createdAt")));
+
+        return message;
+    }
+
+    private Map<String, Object> messageToMap(ChatMessage message) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("message", message.getMessage());
+        map.put("senderId", message.getSenderId());
+        map.put("senderName", message.getSenderName());
+        map.put("senderRole", message.getSenderRole() != null ? message.getSenderRole().name() : null);
+        map.put("recipientId", message.getRecipientId());
+        map.put("recipientName", message.getRecipientName());
+        map.put("recipientRole", message.getRecipientRole() != null ? message.getRecipientRole().name() : null);
+        map.put("type", message.getType() != null ? message.getType().name() : null);
+        map.put("isEdited", Boolean.TRUE.equals(message.getIsEdited()));
+        map.put("isRead", Boolean.TRUE.equals(message.getIsRead()));
+
+        if (message.getEditedAt() != null) {
+            map.put("editedAt", com.google.cloud.Timestamp.of(java.sql.Timestamp.valueOf(message.getEditedAt())));
+        }
+
+        if (message.getReadAt() != null) {
+            map.put("readAt", com.google.cloud.Timestamp.of(java.sql.Timestamp.valueOf(message.getReadAt())));
+        }
+
+        if (message.getCreatedAt() != null) {
+            map.put("createdAt", com.google.cloud.Timestamp.of(java.sql.Timestamp.valueOf(message.getCreatedAt())));
+        }
+
+        return map;
+    }
+
+    private static java.time.LocalDateTime toLocalDateTime(com.google.cloud.Timestamp timestamp) {
+        return timestamp != null
+            ? timestamp.toDate().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime()
+            : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.model.Announcement;
+import com.vehicletracking.model.Role;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Announcement feed of every role, kept sorted (pinned first, then priority, then newest) as
+ * announcements change. A page read after the last announcement of the previous one starts at
+ * that position in the skip list and walks only the page; one read by offset also walks the
+ * entries before it. Expiring announcements wait in a
+ * delay queue, and a sweeper thread deactivates each one and takes it out of the feeds as it
+ * expires, so nothing read from the feeds needs an expiry check.
+ */
+@Service
+public class AnnouncementFeedIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnouncementFeedIndex.class);
+
+    private static final Comparator<FeedEntry> FEED_ORDER = Comparator
+            .comparing((FeedEntry e) -> e.pinned).reversed()
+            .thenComparing(e -> e.priority, Comparator.reverseOrder())
+            .thenComparing(e -> e.createdAt, Comparator.reverseOrder())
+            .thenComparing(e -> e.announcement.getId(), Comparator.reverseOrder());
+
+    private final Map<Role, NavigableSet<FeedEntry>> feeds = new EnumMap<>(Role.class);
+    private final Map<String, FeedEntry> entries = new ConcurrentHashMap<>();
+
+    // Current sequence number of every announcement, and the sequences in each role's feed
+    private final Map<String, Integer> sequences = new ConcurrentHashMap<>();
+    private final Map<Role, BitSet> liveSequences = new EnumMap<>(Role.class);
+    private int nextSequence;
+
+    private final DelayQueue<FeedEntry> expiries = new DelayQueue<>();
+    private Thread sweeper;
+
+    public AnnouncementFeedIndex() {
+        for (Role role : Role.values()) {
+            feeds.put(role, new ConcurrentSkipListSet<>(FEED_ORDER));
+            liveSequences.put(role, new BitSet());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper = new Thread(this::runSweeper, "announcement-expiry");
+        sweeper.setDaemon(true);
+        sweeper.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        sweeper.interrupt();
+        sweeper.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Place an announcement in the feeds of its roles as it is now, replacing where it was before.
+     * One that has expired already is deactivated instead.
+     */
+    public synchronized void index(Announcement announcement) {
+        FeedEntry previous = entries.remove(announcement.getId());
+        removeEntry(previous);
+        if (!Boolean.TRUE.equals(announcement.getIsActive())) {
+            return;
+        }
+        if (announcement.isExpired()) {
+            announcement.setIsActive(false);
+            return;
+        }
+
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : Role.values()) {
+            if (announcement.isVisibleToRole(role)) {
+                roles.add(role);
+            }
+        }
+
+        // One newly live for a role (new, reactivated, extended or widened) gets a fresh sequence,
+        // since read marks may have moved past its old one while it was out of that feed
+        Integer known = sequences.get(announcement.getId());
+        int sequence = known != null && previous != null && previous.roles.containsAll(roles) ? known : nextSequence++;
+        sequences.put(announcement.getId(), sequence);
+
+        FeedEntry entry = new FeedEntry(announcement, sequence, roles);
+        entries.put(announcement.getId(), entry);
+        for (Role role : roles) {
+            feeds.get(role).add(entry);
+            liveSequences.get(role).set(sequence);
+        }
+
+        if (entry.expiresAtMillis != Long.MAX_VALUE) {
+            expiries.add(entry);
+        }
+    }
+
+    public synchronized void remove(String id) {
+        removeEntry(entries.remove(id));
+    }
+
+    /**
+     * Sequence number of an announcement that has been indexed, or -1
+     */
+    public int sequenceOf(String id) {
+        return sequences.getOrDefault(id, -1);
+    }
+
+    /**
+     * Words of the role's feed bitmap from the given word on, up to the last word whose sequences
+     * have all been handed out, so later announcements cannot land in them
+     */
+    public synchronized long[] settledLiveWords(Role role, int fromWord) {
+        int toWord = nextSequence / Long.SIZE;
+        if (fromWord >= toWord) {
+            return new long[0];
+        }
+        long[] words = liveSequences.get(role).get(fromWord * Long.SIZE, toWord * Long.SIZE).toLongArray();
+        return Arrays.copyOf(words, toWord - fromWord);
+    }
+
+    /**
+     * Whether the announcement with the given sequence number is in the role's feed
+     */
+    public synchronized boolean isLive(Role role, int sequence) {
+        return sequence >= 0 && liveSequences.get(role).get(sequence);
+    }
+
+    /**
+     * Sequence numbers of the announcements in the role's feed, as the words of a bitmap
+     */
+    public synchronized long[] liveSequences(Role role) {
+        return liveSequences.get(role).toLongArray();
+    }
+
+    /**
+     * Announcements of the role's feed from offset on, at most limit of them. The entries before
+     * the offset are walked too; prefer {@link #pageAfter} for reading a feed page by page.
+     */
+    public List<Announcement> page(Role role, int offset, int limit) {
+        List<Announcement> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<FeedEntry> iterator = feeds.get(role).iterator();
+        for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next().announcement);
+        }
+        return page;
+    }
+
+    /**
+     * Announcements of the role's feed that sort after the given one, at most limit of them. One
+     * that has left the feed since is placed by its current sort fields.
+     */
+    public List<Announcement> pageAfter(Role role, Announcement after, int limit) {
+        FeedEntry from = entries.get(after.getId());
+        if (from == null) {
+            from = new FeedEntry(after, -1, EnumSet.noneOf(Role.class));
+        }
+
+        List<Announcement> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<FeedEntry> iterator = feeds.get(role).tailSet(from, false).iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next().announcement);
+        }
+        return page;
+    }
+
+    public List<Announcement> feed(Role role) {
+        return page(role, 0, Integer.MAX_VALUE);
+    }
+
+    private void runSweeper() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                expire(expiries.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Announcement expiry failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private synchronized void expire(FeedEntry entry) {
+        // Entries replaced by a later index() were already taken out of the feeds
+        if (entries.remove(entry.announcement.getId(), entry)) {
+            removeFromFeeds(entry);
+            entry.announcement.setIsActive(false);
+        }
+    }
+
+    private void removeEntry(FeedEntry entry) {
+        if (entry != null) {
+            removeFromFeeds(entry);
+            expiries.remove(entry);
+        }
+    }
+
+    private void removeFromFeeds(FeedEntry entry) {
+        for (NavigableSet<FeedEntry> feed : feeds.values()) {
+            feed.remove(entry);
+        }
+        for (BitSet live : liveSequences.values()) {
+            live.clear(entry.sequence);
+        }
+    }
+
+    /**
+     * An announcement with the sort fields it had when indexed, since the announcement itself
+     * may change while it sits in the sorted feeds
+     */
+    private static final class FeedEntry implements Delayed {
+        private final Announcement announcement;
+        private final int sequence;
+        private final Set<Role> roles;
+        private final boolean pinned;
+        private final int priority;
+        private final LocalDateTime createdAt;
+        private final long expiresAtMillis;
+
+        private FeedEntry(Announcement announcement, int sequence, Set<Role> roles) {
+            this.announcement = announcement;
+            this.sequence = sequence;
+            this.roles = roles;
+            this.pinned = Boolean.TRUE.equals(announcement.getIsPinned());
+            this.priority = announcement.getPriority() != null ? announcement.getPriority().ordinal() : 0;
+            this.createdAt = announcement.getCreatedAt();
+            this.expiresAtMillis = announcement.getExpiresAt() != null
+                ? announcement.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((FeedEntry) other).expiresAtMillis);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.model.Role;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Announcements each user has read, by the announcements' sequence numbers. A user's state is a
+ * high-water mark below which nothing is left to read plus a bitmap of the reads above it.
+ * Sequences outside the user's feed count as read when the mark advances; an announcement that
+ * comes back into a feed gets a fresh sequence above every mark. So the state stays a few words
+ * long for users who keep up, which is why a plain BitSet is enough here, and an unread count is
+ * one pass of AND-NOT and bit counts over the feed's bitmap.
+ */
+@Service
+public class AnnouncementReadTracker {
+
+    @Autowired
+    private AnnouncementFeedIndex feedIndex;
+
+    private final Map<String, ReadState> users = new ConcurrentHashMap<>();
+
+    /**
+     * Record that the user, seeing the role's feed, read the announcement with the given sequence number
+     */
+    public void markRead(String userId, Role role, int sequence) {
+        users.computeIfAbsent(userId, id -> new ReadState()).mark(sequence, role, feedIndex);
+    }
+
+    /**
+     * Sequences of the live bitmap the user has not read
+     */
+    public long countUnread(String userId, long[] liveWords) {
+        ReadState state = users.get(userId);
+        if (state == null) {
+            long count = 0;
+            for (long word : liveWords) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+        return state.countUnread(liveWords);
+    }
+
+    private static final class ReadState {
+        // Words of the bitmap below baseWord hold nothing left to read, so they are not stored
+        private int baseWord;
+        private BitSet above = new BitSet();
+
+        synchronized void mark(int sequence, Role role, AnnouncementFeedIndex feedIndex) {
+            int bit = sequence - baseWord * Long.SIZE;
+            if (bit < 0) {
+                return;
+            }
+            above.set(bit);
+
+            // Drop leading words with nothing left to read in the feed, taken in one call to the index
+            long[] liveWords = feedIndex.settledLiveWords(role, baseWord);
+            int fullWords = 0;
+            while (fullWords < liveWords.length && allRead(liveWords[fullWords], fullWords * Long.SIZE)) {
+                fullWords++;
+            }
+            if (fullWords > 0) {
+                baseWord += fullWords;
+                above = above.get(fullWords * Long.SIZE, Math.max(fullWords * Long.SIZE, above.length()));
+            }
+        }
+
+        private boolean allRead(long liveWord, int offset) {
+            for (long bits = liveWord; bits != 0; bits &= bits - 1) {
+                if (!above.get(offset + Long.numberOfTrailingZeros(bits))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized long countUnread(long[] liveWords) {
+            long[] readWords = above.toLongArray();
+            long count = 0;
+            for (int word = baseWord; word < liveWords.length; word++) {
+                int readWord = word - baseWord;
+                long read = readWord < readWords.length ? readWords[readWord] : 0L;
+                count += Long.bitCount(liveWords[word] & ~read);
+            }
+            return count;
+        }
+    }
+}
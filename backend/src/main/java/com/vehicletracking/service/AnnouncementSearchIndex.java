@@ -0,0 +1,150 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.model.Announcement;
+import com.vehicletracking.model.Role;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index over announcement title, content and author. Terms are case-folded words kept
+ * in sorted order, so a query word also matches every term it is a prefix of. A search touches
+ * only the posting lists of its words and checks each match against the role's feed, so its cost
+ * follows the matches rather than the size of the archive.
+ */
+@Service
+public class AnnouncementSearchIndex {
+
+    // Weight of a word occurrence by field
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    // Matching only a prefix of a term counts for less than matching the whole term
+    private static final double PREFIX_FACTOR = 0.5;
+
+    @Autowired
+    private AnnouncementFeedIndex feedIndex;
+
+    // Term to announcement id to weighted occurrences
+    private final ConcurrentSkipListMap<String, Map<String, Integer>> postings = new ConcurrentSkipListMap<>();
+
+    // Terms of every indexed announcement, to take it out of its postings again
+    private final Map<String, Set<String>> documentTerms = new ConcurrentHashMap<>();
+
+    /**
+     * Index an announcement as it is now, replacing its previous text
+     */
+    public synchronized void index(Announcement announcement) {
+        remove(announcement.getId());
+
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, announcement.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, announcement.getAuthorName(), AUTHOR_WEIGHT);
+        addTerms(weights, announcement.getContent(), CONTENT_WEIGHT);
+
+        weights.forEach((term, weight) ->
+            postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(announcement.getId(), weight));
+        documentTerms.put(announcement.getId(), weights.keySet());
+    }
+
+    public synchronized void remove(String id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ids of the announcements in the role's feed matching every word of the query, best first
+     */
+    public List<String> search(String query, Role role) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int documents = Math.max(1, documentTerms.size());
+
+        Map<String, Double> scores = null;
+        for (String word : words) {
+            Map<String, Double> wordScores = new HashMap<>();
+            for (Map.Entry<String, Map<String, Integer>> term : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                Map<String, Integer> posting = term.getValue();
+                double idf = Math.log(1.0 + (double) documents / Math.max(1, posting.size()));
+                double factor = term.getKey().equals(word) ? 1.0 : PREFIX_FACTOR;
+                for (Map.Entry<String, Integer> match : posting.entrySet()) {
+                    // Documents already ruled out by an earlier word are skipped
+                    if (scores != null && !scores.containsKey(match.getKey())) {
+                        continue;
+                    }
+                    if (!feedIndex.isLive(role, feedIndex.sequenceOf(match.getKey()))) {
+                        continue;
+                    }
+                    wordScores.merge(match.getKey(), match.getValue() * idf * factor, Math::max);
+                }
+            }
+
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                Map<String, Double> previous = scores;
+                wordScores.replaceAll((id, score) -> score + previous.get(id));
+                scores = wordScores;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(scores.entrySet());
+        // Newer announcements first among equal scores; ids are time-ordered
+        ranked.sort(Map.Entry.<String, Double>comparingByValue().reversed()
+            .thenComparing(Map.Entry.<String, Double>comparingByKey().reversed()));
+
+        List<String> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<String, Double> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    // Case-folded runs of letters and digits
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String folded = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
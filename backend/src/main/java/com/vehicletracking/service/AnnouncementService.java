@@ -28,6 +28,16 @@ public interface AnnouncementService {
      */
     List<Announcement> getAnnouncementsForRole(Role role);
     
+    /**
+     * Get one page of the announcements visible to a specific role
+     */
+    List<Announcement> getAnnouncementsForRole(Role role, int offset, int limit);
+    
+    /**
+     * Get the page of the announcements visible to a specific role that follows the given announcement
+     */
+    List<Announcement> getAnnouncementsForRole(Role role, String afterId, int limit);
+    
     /**
      * Get pinned announcements
      */
@@ -61,7 +71,7 @@ public interface AnnouncementService {
     /**
      * Mark announcement as read by a user
      */
-    void markAsRead(String announcementId, String userId);
+    void markAsRead(String announcementId, String userId, Role userRole);
     
     /**
      * Get unread announcements count for a user
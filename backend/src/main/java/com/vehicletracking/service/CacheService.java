@@ -0,0 +1,64 @@
+package com.vehicletracking.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.vehicletracking.config.CacheConfig;
+import com.vehicletracking.event.VehicleChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Invalidates cached vehicle responses when a vehicle changes and reports cache statistics
+ */
+@Service
+public class CacheService {
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @EventListener
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        for (String cacheName : CacheConfig.VEHICLE_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            // Single-vehicle lookups are evicted by key, lists may contain the vehicle under any key
+            if (CacheConfig.VEHICLE_BY_ID.equals(cacheName)) {
+                cache.evict(event.getVehicle().getId());
+            } else {
+                cache.clear();
+            }
+        }
+    }
+    
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (!(cache instanceof CaffeineCache)) {
+                continue;
+            }
+            
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            
+            Map<String, Object> cacheStats = new LinkedHashMap<>();
+            cacheStats.put("size", nativeCache.estimatedSize());
+            cacheStats.put("hitCount", stats.hitCount());
+            cacheStats.put("missCount", stats.missCount());
+            cacheStats.put("hitRate", stats.hitRate());
+            cacheStats.put("evictionCount", stats.evictionCount());
+            statistics.put(cacheName, cacheStats);
+        }
+        
+        return statistics;
+    }
+}
@@ -0,0 +1,214 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.model.ChatMessage;
+import com.vehicletracking.repository.ChatMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chat messages per channel. Every message is appended to the channel's persistent log, and the
+ * newest ones are also held in a bounded lock-free ring buffer. Appends are O(1) and never block;
+ * pages within the ring are served from memory, older pages from the log's id index.
+ */
+@Service
+public class ChatHistoryService {
+
+    public static final String PUBLIC_CHANNEL = "public";
+
+    @Value("${app.chat.history.size:100}")
+    private int historySize;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    private final Map<String, ChatHistoryBuffer> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Channel of the private conversation between two users, the same for both directions
+     */
+    public static String privateChannel(String userId, String otherUserId) {
+        return userId.compareTo(otherUserId) <= 0
+            ? "private:" + userId + ":" + otherUserId
+            : "private:" + otherUserId + ":" + userId;
+    }
+
+    /**
+     * Append a message and return its position, the channel's message count including it
+     */
+    public long append(String channel, ChatMessage message) {
+        long position = channels.computeIfAbsent(channel, c -> new ChatHistoryBuffer(historySize)).append(message);
+        chatMessageRepository.append(channel, message);
+        return position;
+    }
+
+    /**
+     * Up to limit messages of the channel sent before the given message id, or the newest ones
+     * without it, oldest first
+     */
+    public List<ChatMessage> page(String channel, String beforeId, int limit) {
+        List<ChatMessage> older = new ArrayList<>();
+        ChatHistoryBuffer buffer = channels.get(channel);
+        if (buffer != null) {
+            for (ChatMessage message : buffer.snapshot(Integer.MAX_VALUE)) {
+                if (beforeId == null || message.getId().compareTo(beforeId) < 0) {
+                    older.add(message);
+                }
+            }
+            if (older.size() >= limit) {
+                return new ArrayList<>(older.subList(older.size() - limit, older.size()));
+            }
+        }
+
+        // The ring only holds the newest messages, so the page reaches into the log. Log writes are
+        // asynchronous and may not have landed yet, so the ring's messages are merged in by id.
+        Map<String, ChatMessage> merged = new TreeMap<>();
+        for (ChatMessage message : chatMessageRepository.findBefore(channel, beforeId, limit)) {
+            merged.put(message.getId(), message);
+        }
+        for (ChatMessage message : older) {
+            merged.put(message.getId(), message);
+        }
+
+        List<ChatMessage> page = new ArrayList<>(merged.values());
+        return page.size() > limit ? new ArrayList<>(page.subList(page.size() - limit, page.size())) : page;
+    }
+
+    /**
+     * Messages appended to the channel since it was created or cleared
+     */
+    public long size(String channel) {
+        ChatHistoryBuffer buffer = channels.get(channel);
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    /**
+     * Messages of the channel up to and including the given one, or -1 when the message is older
+     * than the ring
+     */
+    public long positionOf(String channel, String messageId) {
+        ChatHistoryBuffer buffer = channels.get(channel);
+        return buffer != null ? buffer.positionOf(messageId) : -1;
+    }
+
+    /**
+     * Mark the messages addressed to the reader among the first position messages as read, in the
+     * ring and in the log, in one batch per cursor advance
+     */
+    public void markRead(String channel, String readerId, long position) {
+        ChatHistoryBuffer buffer = channels.get(channel);
+        if (buffer == null) {
+            return;
+        }
+
+        LocalDateTime readAt = LocalDateTime.now();
+        List<ChatMessage> covered = buffer.snapshotBefore(position);
+        List<String> readIds = new ArrayList<>();
+        for (ChatMessage message : covered) {
+            if (readerId.equals(message.getRecipientId()) && !Boolean.TRUE.equals(message.getIsRead())) {
+                message.setIsRead(true);
+                message.setReadAt(readAt);
+                readIds.add(message.getId());
+            }
+        }
+        if (!readIds.isEmpty()) {
+            chatMessageRepository.markRead(channel, readIds, readAt);
+        }
+        // Messages that have left the ring are only found in the log
+        if (!covered.isEmpty() && position > covered.size()) {
+            chatMessageRepository.markReadBefore(channel, readerId, covered.get(0).getId(), readAt);
+        }
+    }
+
+    public void clear(String channel) {
+        channels.remove(channel);
+        chatMessageRepository.deleteConversation(channel);
+    }
+
+    /**
+     * Ring of the newest messages. Writers claim a sequence number and store the message with it,
+     * so a reader can tell a slot that was lapped by a newer write from one still being written.
+     */
+    static final class ChatHistoryBuffer {
+        private final int capacity;
+        private final AtomicReferenceArray<Entry> slots;
+        private final AtomicLong nextSequence = new AtomicLong();
+
+        ChatHistoryBuffer(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.slots = new AtomicReferenceArray<>(this.capacity);
+        }
+
+        long append(ChatMessage message) {
+            long sequence = nextSequence.getAndIncrement();
+            slots.set((int) (sequence % capacity), new Entry(sequence, message));
+            return sequence + 1;
+        }
+
+        long size() {
+            return nextSequence.get();
+        }
+
+        long positionOf(String messageId) {
+            long end = nextSequence.get();
+            for (long sequence = end - 1; sequence >= Math.max(0, end - capacity); sequence--) {
+                Entry entry = slots.get((int) (sequence % capacity));
+                if (entry != null && entry.sequence == sequence && messageId.equals(entry.message.getId())) {
+                    return sequence + 1;
+                }
+            }
+            return -1;
+        }
+
+        List<ChatMessage> snapshotBefore(long position) {
+            List<ChatMessage> messages = new ArrayList<>();
+            for (long sequence = Math.max(0, position - capacity); sequence < position; sequence++) {
+                Entry entry = slots.get((int) (sequence % capacity));
+                if (entry != null && entry.sequence == sequence) {
+                    messages.add(entry.message);
+                }
+            }
+            return messages;
+        }
+
+        List<ChatMessage> snapshot(int limit) {
+            long end = nextSequence.get();
+            long start = Math.max(0, end - Math.min(limit, capacity));
+
+            List<ChatMessage> messages = new ArrayList<>();
+            for (long sequence = start; sequence < end; sequence++) {
+                Entry entry = slots.get((int) (sequence % capacity));
+                if (entry == null || entry.sequence < sequence) {
+                    // Still being written; later messages would leave a gap
+                    break;
+                }
+                if (entry.sequence > sequence) {
+                    // Lapped by newer writes; only messages after it can still be read in order
+                    messages.clear();
+                    continue;
+                }
+                messages.add(entry.message);
+            }
+            return messages;
+        }
+
+        private static final class Entry {
+            private final long sequence;
+            private final ChatMessage message;
+
+            private Entry(long sequence, ChatMessage message) {
+                this.sequence = sequence;
+                this.message = message;
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.vehicletracking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last-read cursor of every user in every conversation they take part in. A cursor is the number
+ * of the conversation's messages the user has read, so the unread count is the conversation's
+ * message count minus the cursor, without looking at any message.
+ */
+@Service
+public class ChatReadStateService {
+
+    @Autowired
+    private ChatHistoryService chatHistoryService;
+
+    // User id to conversation channel to cursor
+    private final Map<String, Map<String, ReadCursor>> cursors = new ConcurrentHashMap<>();
+
+    /**
+     * Record a message appended to the channel at the given position: the sender has read it, the
+     * recipient of a private message now has one more unread
+     */
+    public void onSent(String channel, long position, String senderId, String recipientId) {
+        if (senderId != null) {
+            cursor(senderId, channel, position).advance(position);
+        }
+        if (recipientId != null) {
+            // A new conversation counts the message that started it as unread
+            cursor(recipientId, channel, position - 1);
+        }
+    }
+
+    /**
+     * Start counting unread messages of a room for the user, from its current end
+     */
+    public void join(String userId, String channel) {
+        cursor(userId, channel, chatHistoryService.size(channel));
+    }
+
+    /**
+     * Move the user's cursor up to the given message, or to the end of the conversation without one.
+     * Cursors never move back, so reads arriving out of order are harmless. Returns false when the
+     * user does not take part in the conversation.
+     */
+    public boolean markRead(String userId, String channel, String messageId) {
+        Map<String, ReadCursor> userCursors = cursors.get(userId);
+        ReadCursor cursor = userCursors != null ? userCursors.get(channel) : null;
+        if (cursor == null) {
+            return false;
+        }
+
+        long position = messageId == null
+            ? chatHistoryService.size(channel)
+            : chatHistoryService.positionOf(channel, messageId);
+        // A message older than the in-memory history leaves the cursor where it is
+        if (position >= 0 && cursor.advance(position)) {
+            chatHistoryService.markRead(channel, userId, position);
+        }
+        return true;
+    }
+
+    public long getUnreadCount(String userId, String channel) {
+        Map<String, ReadCursor> userCursors = cursors.get(userId);
+        ReadCursor cursor = userCursors != null ? userCursors.get(channel) : null;
+        return cursor != null ? unread(channel, cursor) : 0;
+    }
+
+    /**
+     * Unread messages per conversation of the user
+     */
+    public Map<String, Long> getUnreadCounts(String userId) {
+        Map<String, Long> counts = new HashMap<>();
+        Map<String, ReadCursor> userCursors = cursors.get(userId);
+        if (userCursors != null) {
+            userCursors.forEach((channel, cursor) -> counts.put(channel, unread(channel, cursor)));
+        }
+        return counts;
+    }
+
+    /**
+     * Forget all cursors of a conversation, e.g. after its history was cleared
+     */
+    public void clear(String channel) {
+        for (Map<String, ReadCursor> userCursors : cursors.values()) {
+            userCursors.remove(channel);
+        }
+    }
+
+    private ReadCursor cursor(String userId, String channel, long initialPosition) {
+        return cursors.computeIfAbsent(userId, u -> new ConcurrentHashMap<>())
+            .computeIfAbsent(channel, c -> new ReadCursor(Math.max(0, initialPosition)));
+    }
+
+    private long unread(String channel, ReadCursor cursor) {
+        return Math.max(0, chatHistoryService.size(channel) - cursor.position.get());
+    }
+
+    private static final class ReadCursor {
+        private final AtomicLong position;
+
+        private ReadCursor(long position) {
+            this.position = new AtomicLong(position);
+        }
+
+        boolean advance(long to) {
+            long previous = position.getAndAccumulate(to, Math::max);
+            return to > previous;
+        }
+    }
+}
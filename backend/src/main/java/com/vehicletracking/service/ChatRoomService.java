@@ -0,0 +1,137 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.model.Role;
+import com.vehicletracking.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+/**
+ * Chat rooms scoped to a university, or to one route of a university. Each room has its own
+ * broker destination, so a message reaches only the room's subscribers instead of every
+ * connected user, its own presence feed and its own history channel.
+ */
+@Service
+public class ChatRoomService {
+
+    public static final String ROOM_TOPIC_PREFIX = "/topic/chat/university/";
+    private static final String ROUTE_SEGMENT = "/route/";
+    private static final String PRESENCE_SUFFIX = "/presence";
+
+    // The simple broker matches subscriptions with this matcher
+    private static final PathMatcher DESTINATION_MATCHER = new AntPathMatcher();
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    /**
+     * Whether a broker destination lies in the chat room namespace; all of it needs membership
+     */
+    public static boolean isRoomDestination(String destination) {
+        return destination != null && destination.startsWith(ROOM_TOPIC_PREFIX);
+    }
+
+    /**
+     * Whether a subscription destination is a pattern, which the broker would match against
+     * every destination, chat rooms and presence feeds included
+     */
+    public static boolean isPattern(String destination) {
+        return destination != null && DESTINATION_MATCHER.isPattern(destination);
+    }
+
+    /**
+     * Room of a room or presence feed destination, or null when the destination is neither.
+     * Patterns are never rooms, even where a wildcard sits in place of a name.
+     */
+    public static ChatRoom roomOf(String destination) {
+        if (!isRoomDestination(destination) || isPattern(destination)) {
+            return null;
+        }
+
+        String path = destination.substring(ROOM_TOPIC_PREFIX.length());
+        ChatRoom room = parseRoom(path, false);
+        if (room == null && path.endsWith(PRESENCE_SUFFIX)) {
+            room = parseRoom(path.substring(0, path.length() - PRESENCE_SUFFIX.length()), true);
+        }
+        return room;
+    }
+
+    private static ChatRoom parseRoom(String path, boolean presenceFeed) {
+        int route = path.indexOf(ROUTE_SEGMENT);
+        if (route < 0) {
+            return path.isEmpty() || path.contains("/") ? null : new ChatRoom(path, null, presenceFeed);
+        }
+
+        String university = path.substring(0, route);
+        String routeName = path.substring(route + ROUTE_SEGMENT.length());
+        if (university.isEmpty() || university.contains("/") || routeName.isEmpty() || routeName.contains("/")) {
+            return null;
+        }
+        return new ChatRoom(university, routeName, presenceFeed);
+    }
+
+    /**
+     * Admins may join any room; everyone else only rooms of their own university, and a route
+     * room only while a vehicle of that university serves the route
+     */
+    public boolean canJoin(User user, ChatRoom room) {
+        if (user == null || !Boolean.TRUE.equals(user.getIsActive())) {
+            return false;
+        }
+        if (user.getRole() == Role.ADMIN) {
+            return true;
+        }
+        if (!room.getUniversity().equals(user.getUniversity())) {
+            return false;
+        }
+        return room.getRoute() == null || vehicleService.getVehiclesByUniversity(room.getUniversity()).stream()
+            .anyMatch(vehicle -> room.getRoute().equals(vehicle.getRouteName()));
+    }
+
+    public static final class ChatRoom {
+        private final String university;
+        private final String route;
+        private final boolean presenceFeed;
+
+        public ChatRoom(String university, String route) {
+            this(university, route, false);
+        }
+
+        private ChatRoom(String university, String route, boolean presenceFeed) {
+            this.university = university;
+            this.route = route;
+            this.presenceFeed = presenceFeed;
+        }
+
+        public String getUniversity() {
+            return university;
+        }
+
+        // Null for the university-wide room
+        public String getRoute() {
+            return route;
+        }
+
+        public String getDestination() {
+            return route == null
+                ? ROOM_TOPIC_PREFIX + university
+                : ROOM_TOPIC_PREFIX + university + ROUTE_SEGMENT + route;
+        }
+
+        // Whether the destination this room was parsed from is its presence feed
+        public boolean isPresenceFeed() {
+            return presenceFeed;
+        }
+
+        public String getPresenceDestination() {
+            return getDestination() + PRESENCE_SUFFIX;
+        }
+
+        public String getHistoryChannel() {
+            return route == null
+                ? "university:" + university
+                : "route:" + university + ":" + route;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.config.SecurityConstants;
+import com.vehicletracking.exception.BusinessLogicException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps device fix timestamps onto the server clock. The gap between receive time and
+ * fix time is transit delay plus clock offset, so the smallest gap seen from a device
+ * estimates its offset; delayed and batched fixes only have larger gaps and keep their
+ * original spacing after correction.
+ */
+@Service
+public class ClockSkewEstimator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClockSkewEstimator.class);
+
+    // Let the estimate rise with clock drift or slower links, 1 ms per second of elapsed time
+    private static final double DRIFT_PER_MILLI = 0.001;
+
+    // Consecutive stale fixes after which the device clock is assumed to have been reset
+    private static final int STALE_RESET_SAMPLES = 3;
+
+    private static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(SecurityConstants.MAX_LOCATION_AGE_MINUTES);
+    private static final long MAX_OFFSET_MILLIS =
+        TimeUnit.MINUTES.toMillis(SecurityConstants.MAX_CLOCK_SKEW_MINUTES) + MAX_AGE_MILLIS;
+
+    private final Map<String, DeviceClock> clocks = new ConcurrentHashMap<>();
+
+    /**
+     * Fix time on the server clock, rejecting timestamps no plausible skew explains and fixes too old to use
+     */
+    public long toServerTime(String deviceId, long deviceTimeMillis, long receivedMillis) {
+        long offset = receivedMillis - deviceTimeMillis;
+        if (Math.abs(offset) > MAX_OFFSET_MILLIS) {
+            throw new BusinessLogicException("Fix timestamp is implausible", "IMPLAUSIBLE_FIX_TIME");
+        }
+
+        DeviceClock clock = clocks.computeIfAbsent(deviceId, id -> new DeviceClock());
+        long estimate;
+        synchronized (clock) {
+            if (!clock.hasEstimate) {
+                clock.offsetMillis = offset;
+                clock.hasEstimate = true;
+            } else {
+                long allowed = clock.offsetMillis + (long) ((receivedMillis - clock.updatedMillis) * DRIFT_PER_MILLI);
+                if (offset - allowed > MAX_AGE_MILLIS) {
+                    // The newest of a run of stale fixes is the one to re-anchor on if the clock was reset
+                    if (clock.staleSamples == 0 || deviceTimeMillis > clock.staleNewestMillis) {
+                        clock.staleNewestMillis = deviceTimeMillis;
+                        clock.staleNewestOffsetMillis = offset;
+                    }
+                    if (++clock.staleSamples < STALE_RESET_SAMPLES) {
+                        // Too old against the current estimate; do not let it skew the estimate
+                        throw staleFix();
+                    }
+                    logger.info("Clock of device {} moved, resetting offset estimate from {} ms to {} ms",
+                        deviceId, clock.offsetMillis, clock.staleNewestOffsetMillis);
+                    clock.offsetMillis = clock.staleNewestOffsetMillis;
+                    clock.staleSamples = 0;
+                    clock.updatedMillis = receivedMillis;
+                    if (offset - clock.offsetMillis > MAX_AGE_MILLIS) {
+                        // Older than allowed against the new anchor as well
+                        throw staleFix();
+                    }
+                } else {
+                    clock.offsetMillis = Math.min(offset, allowed);
+                }
+            }
+            clock.staleSamples = 0;
+            clock.updatedMillis = receivedMillis;
+            estimate = clock.offsetMillis;
+        }
+
+        return deviceTimeMillis + estimate;
+    }
+
+    private static BusinessLogicException staleFix() {
+        return new BusinessLogicException("Fix is older than "
+            + SecurityConstants.MAX_LOCATION_AGE_MINUTES + " minutes", "STALE_FIX");
+    }
+
+    private static final class DeviceClock {
+        private boolean hasEstimate;
+        private long offsetMillis;
+        private long updatedMillis;
+        private int staleSamples;
+        private long staleNewestMillis;
+        private long staleNewestOffsetMillis;
+    }
+}
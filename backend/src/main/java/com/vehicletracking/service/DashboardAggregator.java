@@ -0,0 +1,539 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.event.LocationFixEvent;
+import com.vehicletracking.event.TripStatusChangedEvent;
+import com.vehicletracking.event.UserCreatedEvent;
+import com.vehicletracking.event.UserLoginEvent;
+import com.vehicletracking.event.VehicleChangedEvent;
+import com.vehicletracking.model.Role;
+import com.vehicletracking.model.Trip;
+import com.vehicletracking.model.TripStatus;
+import com.vehicletracking.model.User;
+import com.vehicletracking.model.Vehicle;
+import com.vehicletracking.model.VehicleStatus;
+import com.vehicletracking.repository.UserRepository;
+import com.vehicletracking.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps dashboard counters up to date from domain events so dashboard reads
+ * only walk pre-aggregated counters and never scan the repositories.
+ * Range-based trip totals live in {@link TripRollupStore}.
+ * The counters are seeded once from the repositories when the application is ready.
+ */
+@Service
+public class DashboardAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardAggregator.class);
+
+    private static final int RECENT_ACTIVITY_LIMIT = 10;
+    private static final int RECENT_TRIPS_PER_DRIVER = 5;
+    private static final int MOST_ACTIVE_USERS_LIMIT = 5;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private final long startedAtMillis = System.currentTimeMillis();
+
+    // Users
+    private final Set<String> knownUserIds = ConcurrentHashMap.newKeySet();
+    private final Map<Role, LongAdder> usersByRole = new EnumMap<>(Role.class);
+    private final Map<Role, ConcurrentSkipListMap<LocalDate, LongAdder>> registrationsByRole = new EnumMap<>(Role.class);
+    private final Map<Role, AtomicReference<DailyActivity>> activityByRole = new EnumMap<>(Role.class);
+
+    // Vehicles
+    private final Map<String, VehicleState> vehicles = new ConcurrentHashMap<>();
+    private final Map<VehicleStatus, LongAdder> vehiclesByStatus = new EnumMap<>(VehicleStatus.class);
+    private final Map<String, String> vehicleNumberByDriver = new ConcurrentHashMap<>();
+    private final Map<String, Double> lastSpeedByVehicle = new ConcurrentHashMap<>();
+    private final DoubleAdder speedSum = new DoubleAdder();
+    private final LongAdder locationFixes = new LongAdder();
+
+    // Trips
+    private final LongAdder totalTrips = new LongAdder();
+    private final Set<String> vehiclesOnTrip = ConcurrentHashMap.newKeySet();
+    private final Map<String, DriverTotals> driverTotals = new ConcurrentHashMap<>();
+
+    // System
+    private final Set<String> connectedSessions = ConcurrentHashMap.newKeySet();
+    private final Deque<ActivityEntry> recentActivities = new ArrayDeque<>();
+
+    public DashboardAggregator() {
+        for (Role role : Role.values()) {
+            usersByRole.put(role, new LongAdder());
+            registrationsByRole.put(role, new ConcurrentSkipListMap<>());
+            activityByRole.put(role, new AtomicReference<>(new DailyActivity(LocalDate.now())));
+        }
+        for (VehicleStatus status : VehicleStatus.values()) {
+            vehiclesByStatus.put(status, new LongAdder());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromRepositories() {
+        try {
+            List<User> users = userRepository.findAll();
+            users.forEach(this::registerUser);
+
+            List<Vehicle> vehicleList = vehicleRepository.findAll();
+            vehicleList.forEach(this::applyVehicle);
+
+            logger.info("Seeded dashboard counters with {} users and {} vehicles", users.size(), vehicleList.size());
+        } catch (Exception e) {
+            logger.error("Failed to seed dashboard counters: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onUserCreated(UserCreatedEvent event) {
+        User user = event.getUser();
+        if (registerUser(user) && user.getRole() != null) {
+            registrationsByRole.get(user.getRole())
+                .computeIfAbsent(LocalDate.now(), date -> new LongAdder())
+                .increment();
+            addActivity("New User Registration", user.getFullName(),
+                "New " + user.getRole().getValue().toLowerCase() + " registered");
+        }
+    }
+
+    @EventListener
+    public void onUserLogin(UserLoginEvent event) {
+        User user = event.getUser();
+        if (user.getRole() == null) {
+            return;
+        }
+        currentActivity(user.getRole()).record(user.getId(), user.getUsername(), LocalDateTime.now().getHour());
+    }
+
+    @EventListener
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        VehicleState previous = vehicles.get(event.getVehicle().getId());
+        VehicleState current = applyVehicle(event.getVehicle());
+
+        if (current == null) {
+            return;
+        }
+        if (previous == null && current.active) {
+            addActivity("Vehicle Added", null, "Vehicle " + current.vehicleNumber + " added to the fleet");
+        } else if (previous != null && previous.active && !current.active) {
+            addActivity("Vehicle Removed", null, "Vehicle " + current.vehicleNumber + " removed from the fleet");
+        } else if (previous != null && previous.status != current.status && current.status == VehicleStatus.MAINTENANCE) {
+            addActivity("Vehicle Maintenance", null, "Vehicle " + current.vehicleNumber + " moved to maintenance");
+        }
+    }
+
+    @EventListener
+    public void onLocationFix(LocationFixEvent event) {
+        locationFixes.increment();
+
+        if (event.getSpeed() != null) {
+            Double previous = lastSpeedByVehicle.put(event.getVehicleId(), event.getSpeed());
+            speedSum.add(event.getSpeed() - (previous != null ? previous : 0.0));
+        }
+    }
+
+    @EventListener
+    public void onTripStatusChanged(TripStatusChangedEvent event) {
+        Trip trip = event.getTrip();
+        TripStatus previous = event.getPreviousStatus();
+        TripStatus current = trip.getStatus();
+        if (previous == current) {
+            return;
+        }
+
+        boolean counted = previous == TripStatus.IN_PROGRESS || previous == TripStatus.DELAYED;
+        if (!counted) {
+            totalTrips.increment();
+        }
+
+        if (trip.getVehicleId() != null) {
+            if (current == TripStatus.IN_PROGRESS) {
+                vehiclesOnTrip.add(trip.getVehicleId());
+            } else if (counted) {
+                vehiclesOnTrip.remove(trip.getVehicleId());
+            }
+        }
+
+        if (trip.getDriverId() != null && (current == TripStatus.COMPLETED || current == TripStatus.CANCELLED)) {
+            driverTotals.computeIfAbsent(trip.getDriverId(), id -> new DriverTotals()).record(trip);
+        }
+
+        if (current == TripStatus.COMPLETED) {
+            addActivity("Trip Completed", trip.getDriverName(), describeRoute(trip) + " completed");
+        } else if (current == TripStatus.CANCELLED) {
+            addActivity("Trip Cancelled", trip.getDriverName(), describeRoute(trip) + " cancelled");
+        }
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            connectedSessions.add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        connectedSessions.remove(event.getSessionId());
+    }
+
+    // Users
+
+    public long getTotalUsers() {
+        return usersByRole.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getUserCount(Role role) {
+        return usersByRole.get(role).sum();
+    }
+
+    public Map<String, Long> getUsersByRole() {
+        Map<String, Long> counts = new HashMap<>();
+        usersByRole.forEach((role, count) -> counts.put(role.getValue(), count.sum()));
+        return counts;
+    }
+
+    public int getRegistrationsSince(Role role, LocalDate since) {
+        return (int) registrationsByRole.get(role).tailMap(since, true).values().stream()
+            .mapToLong(LongAdder::sum)
+            .sum();
+    }
+
+    public long getActiveUsersToday(Role role) {
+        return currentActivity(role).activeUserIds.size();
+    }
+
+    public Map<String, Long> getActivityByHourToday(Role role) {
+        DailyActivity activity = currentActivity(role);
+        Map<String, Long> byHour = new LinkedHashMap<>();
+        for (int hour = 0; hour < 24; hour++) {
+            long count = activity.logins.get(hour);
+            if (count > 0) {
+                byHour.put(String.valueOf(hour), count);
+            }
+        }
+        return byHour;
+    }
+
+    public List<String> getRecentlyActiveUsers(Role role) {
+        return currentActivity(role).recentUsernames();
+    }
+
+    // Vehicles
+
+    public long getTotalVehicles() {
+        return vehiclesByStatus.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getVehicleCount(VehicleStatus status) {
+        return vehiclesByStatus.get(status).sum();
+    }
+
+    public Map<String, Long> getVehiclesByStatus() {
+        Map<String, Long> counts = new HashMap<>();
+        vehiclesByStatus.forEach((status, count) -> counts.put(status.getValue(), count.sum()));
+        return counts;
+    }
+
+    public long getVehiclesOnTrip() {
+        return vehiclesOnTrip.size();
+    }
+
+    public String getVehicleNumber(String vehicleId) {
+        VehicleState state = vehicles.get(vehicleId);
+        return state != null ? state.vehicleNumber : null;
+    }
+
+    public String getVehicleNumberByDriver(String driverId) {
+        return vehicleNumberByDriver.get(driverId);
+    }
+
+    public Double getAverageSpeed() {
+        int reporting = lastSpeedByVehicle.size();
+        return reporting > 0 ? speedSum.sum() / reporting : null;
+    }
+
+    public long getLocationFixes() {
+        return locationFixes.sum();
+    }
+
+    // Trips
+
+    public long getTotalTrips() {
+        return totalTrips.sum();
+    }
+
+    public DriverTotals getDriverTotals(String driverId) {
+        DriverTotals totals = driverTotals.get(driverId);
+        return totals != null ? totals.copy() : new DriverTotals();
+    }
+
+    // System
+
+    public long getActiveConnections() {
+        return connectedSessions.size();
+    }
+
+    public long getUptimeMillis() {
+        return System.currentTimeMillis() - startedAtMillis;
+    }
+
+    public List<ActivityEntry> getRecentActivities() {
+        synchronized (recentActivities) {
+            return new ArrayList<>(recentActivities);
+        }
+    }
+
+    private boolean registerUser(User user) {
+        if (user.getId() == null || !knownUserIds.add(user.getId())) {
+            return false;
+        }
+        if (user.getRole() != null) {
+            usersByRole.get(user.getRole()).increment();
+        }
+        return true;
+    }
+
+    /**
+     * Replace the vehicle's last known state and move its status and driver counts
+     */
+    private VehicleState applyVehicle(Vehicle vehicle) {
+        if (vehicle.getId() == null) {
+            return null;
+        }
+
+        VehicleState next = new VehicleState(vehicle);
+        VehicleState previous = vehicles.put(vehicle.getId(), next);
+
+        if (previous != null) {
+            if (previous.active && previous.status != null) {
+                vehiclesByStatus.get(previous.status).decrement();
+            }
+            if (previous.driverId != null) {
+                vehicleNumberByDriver.remove(previous.driverId, previous.vehicleNumber);
+            }
+        }
+        if (next.active && next.status != null) {
+            vehiclesByStatus.get(next.status).increment();
+        }
+        if (next.active && next.driverId != null) {
+            vehicleNumberByDriver.put(next.driverId, next.vehicleNumber);
+        }
+        if (!next.active) {
+            Double lastSpeed = lastSpeedByVehicle.remove(vehicle.getId());
+            if (lastSpeed != null) {
+                speedSum.add(-lastSpeed);
+            }
+        }
+        return next;
+    }
+
+    private DailyActivity currentActivity(Role role) {
+        AtomicReference<DailyActivity> ref = activityByRole.get(role);
+        LocalDate today = LocalDate.now();
+        DailyActivity activity = ref.get();
+        while (!activity.date.equals(today)) {
+            ref.compareAndSet(activity, new DailyActivity(today));
+            activity = ref.get();
+        }
+        return activity;
+    }
+
+    private void addActivity(String action, String user, String description) {
+        synchronized (recentActivities) {
+            recentActivities.addFirst(new ActivityEntry(action, user, description, System.currentTimeMillis()));
+            while (recentActivities.size() > RECENT_ACTIVITY_LIMIT) {
+                recentActivities.removeLast();
+            }
+        }
+    }
+
+    private static String describeRoute(Trip trip) {
+        return trip.getRouteName() != null ? "Route " + trip.getRouteName() : "Trip " + trip.getId();
+    }
+
+    private static final class VehicleState {
+        private final VehicleStatus status;
+        private final boolean active;
+        private final String vehicleNumber;
+        private final String driverId;
+
+        private VehicleState(Vehicle vehicle) {
+            this.status = vehicle.getStatus();
+            this.active = !Boolean.FALSE.equals(vehicle.getIsActive());
+            this.vehicleNumber = vehicle.getVehicleNumber();
+            this.driverId = vehicle.getDriverId();
+        }
+    }
+
+    private static final class DailyActivity {
+        private final LocalDate date;
+        private final AtomicLongArray logins = new AtomicLongArray(24);
+        private final Set<String> activeUserIds = ConcurrentHashMap.newKeySet();
+        private final LinkedHashMap<String, Boolean> recentUsernames = new LinkedHashMap<>(16, 0.75f, true);
+
+        private DailyActivity(LocalDate date) {
+            this.date = date;
+        }
+
+        private void record(String userId, String username, int hour) {
+            logins.incrementAndGet(hour);
+            if (userId != null) {
+                activeUserIds.add(userId);
+            }
+            if (username != null) {
+                synchronized (recentUsernames) {
+                    recentUsernames.put(username, Boolean.TRUE);
+                    if (recentUsernames.size() > MOST_ACTIVE_USERS_LIMIT) {
+                        recentUsernames.remove(recentUsernames.keySet().iterator().next());
+                    }
+                }
+            }
+        }
+
+        private List<String> recentUsernames() {
+            synchronized (recentUsernames) {
+                List<String> usernames = new ArrayList<>(recentUsernames.keySet());
+                Collections.reverse(usernames);
+                return usernames;
+            }
+        }
+    }
+
+    /**
+     * Lifetime totals and recent trips of one driver
+     */
+    public static final class DriverTotals {
+        private long completedTrips;
+        private double distanceKm;
+        private double durationMinutes;
+        private long passengers;
+        private long scheduledTrips;
+        private long onTimeTrips;
+        private LocalDate lastTripDate;
+        private int tripsOnLastTripDate;
+        private final Deque<Trip> recentTrips = new ArrayDeque<>();
+
+        private synchronized void record(Trip trip) {
+            if (trip.getStatus() == TripStatus.COMPLETED) {
+                completedTrips++;
+                distanceKm += trip.getActualDistance() != null ? trip.getActualDistance() : 0.0;
+                durationMinutes += trip.getActualDuration() != null ? trip.getActualDuration() : 0.0;
+                passengers += trip.getPassengerCount() != null ? trip.getPassengerCount() : 0;
+                if (trip.getScheduledEndTime() != null) {
+                    scheduledTrips++;
+                    if (trip.isOnTime()) {
+                        onTimeTrips++;
+                    }
+                }
+
+                LocalDate today = LocalDate.now();
+                if (!today.equals(lastTripDate)) {
+                    lastTripDate = today;
+                    tripsOnLastTripDate = 0;
+                }
+                tripsOnLastTripDate++;
+            }
+
+            recentTrips.addFirst(trip);
+            while (recentTrips.size() > RECENT_TRIPS_PER_DRIVER) {
+                recentTrips.removeLast();
+            }
+        }
+
+        private synchronized DriverTotals copy() {
+            DriverTotals copy = new DriverTotals();
+            copy.completedTrips = completedTrips;
+            copy.distanceKm = distanceKm;
+            copy.durationMinutes = durationMinutes;
+            copy.passengers = passengers;
+            copy.scheduledTrips = scheduledTrips;
+            copy.onTimeTrips = onTimeTrips;
+            copy.lastTripDate = lastTripDate;
+            copy.tripsOnLastTripDate = tripsOnLastTripDate;
+            copy.recentTrips.addAll(recentTrips);
+            return copy;
+        }
+
+        public long getCompletedTrips() {
+            return completedTrips;
+        }
+
+        public int getTripsToday() {
+            return LocalDate.now().equals(lastTripDate) ? tripsOnLastTripDate : 0;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public Double getAverageDurationMinutes() {
+            return completedTrips > 0 ? durationMinutes / completedTrips : null;
+        }
+
+        public long getPassengers() {
+            return passengers;
+        }
+
+        public Double getOnTimePercentage() {
+            return scheduledTrips > 0 ? onTimeTrips * 100.0 / scheduledTrips : null;
+        }
+
+        public List<Trip> getRecentTrips() {
+            return new ArrayList<>(recentTrips);
+        }
+    }
+
+    public static final class ActivityEntry {
+        private final String action;
+        private final String user;
+        private final String description;
+        private final long timestampMillis;
+
+        private ActivityEntry(String action, String user, String description, long timestampMillis) {
+            this.action = action;
+            this.user = user;
+            this.description = description;
+            this.timestampMillis = timestampMillis;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Duration getAge() {
+            return Duration.ofMillis(System.currentTimeMillis() - timestampMillis);
+        }
+    }
+}
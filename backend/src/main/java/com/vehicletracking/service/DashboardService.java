@@ -4,6 +4,7 @@ import com.vehicletracking.dto.*;
 import com.vehicletracking.model.Role;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public interface DashboardService {
     
@@ -41,4 +42,9 @@ public interface DashboardService {
      * Get trip analytics
      */
     TripAnalytics getTripAnalytics(LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * Get trip analytics for trips started in [from, to), of one university or the whole fleet
+     */
+    TripAnalytics getTripAnalytics(LocalDateTime from, LocalDateTime to, String university);
 }
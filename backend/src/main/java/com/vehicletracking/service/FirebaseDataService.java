@@ -1,20 +1,32 @@
 package com.vehicletracking.service;
 
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.firebase.database.*;
 import com.google.firebase.auth.FirebaseAuth;
+import com.vehicletracking.config.SecurityConstants;
 import com.vehicletracking.dto.LocationUpdateDto;
 import com.vehicletracking.dto.VehicleDto;
+import com.vehicletracking.exception.BusinessLogicException;
 import com.vehicletracking.model.Role;
 import com.vehicletracking.model.User;
 import com.vehicletracking.model.Vehicle;
 import com.vehicletracking.model.VehicleStatus;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 @Service
 public class FirebaseDataService {
@@ -27,6 +39,85 @@ public class FirebaseDataService {
     @Autowired
     private FirebaseAuth firebaseAuth;
     
+    @Autowired
+    private ClockSkewEstimator clockSkewEstimator;
+    
+    // Local mirror of /vehicles kept current by child events, ordered by key like a database query
+    private final ConcurrentNavigableMap<String, Vehicle> vehicleMirror = new ConcurrentSkipListMap<>();
+    
+    // Completes once the initial contents of /vehicles have been mirrored
+    private volatile CompletableFuture<Void> vehicleMirrorReady = new CompletableFuture<>();
+    
+    @PostConstruct
+    public void startVehicleMirror() {
+        if (firebaseDatabase == null) {
+            logger.warn("Firebase Database not initialized, vehicle mirror disabled");
+            vehicleMirrorReady.completeExceptionally(new RuntimeException("Firebase Database not initialized"));
+            return;
+        }
+        
+        DatabaseReference vehiclesRef = getVehiclesRef();
+        vehiclesRef.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(DataSnapshot dataSnapshot, String previousChildName) {
+                mirrorVehicle(dataSnapshot);
+            }
+            
+            @Override
+            public void onChildChanged(DataSnapshot dataSnapshot, String previousChildName) {
+                mirrorVehicle(dataSnapshot);
+            }
+            
+            @Override
+            public void onChildRemoved(DataSnapshot dataSnapshot) {
+                vehicleMirror.remove(dataSnapshot.getKey());
+            }
+            
+            @Override
+            public void onChildMoved(DataSnapshot dataSnapshot, String previousChildName) {
+                // Order is taken from the keys, not from the database
+            }
+            
+            @Override
+            public void onCancelled(DatabaseError databaseError) {
+                logger.error("Vehicle mirror listener cancelled: {}", databaseError.getMessage());
+                vehicleMirror.clear();
+                CompletableFuture<Void> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new RuntimeException(databaseError.getMessage()));
+                vehicleMirrorReady = failed;
+            }
+        });
+        
+        // Value events are raised after the child events for the same data, so this marks the initial load
+        vehiclesRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot) {
+                logger.info("Vehicle mirror loaded with {} vehicles", vehicleMirror.size());
+                vehicleMirrorReady.complete(null);
+            }
+            
+            @Override
+            public void onCancelled(DatabaseError databaseError) {
+                vehicleMirrorReady.completeExceptionally(new RuntimeException(databaseError.getMessage()));
+            }
+        });
+    }
+    
+    private void mirrorVehicle(DataSnapshot dataSnapshot) {
+        String vehicleId = dataSnapshot.getKey();
+        try {
+            Vehicle vehicle = convertMapToVehicle(dataSnapshot.getValue(), vehicleId);
+            if (vehicle != null) {
+                vehicleMirror.put(vehicleId, vehicle);
+            } else {
+                vehicleMirror.remove(vehicleId);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Skipping malformed vehicle {}: {}", vehicleId, e.getMessage());
+            vehicleMirror.remove(vehicleId);
+        }
+    }
+    
     // Database References
     private DatabaseReference getUsersRef() {
         if (firebaseDatabase == null) {
@@ -154,66 +245,55 @@ public class FirebaseDataService {
     }
     
     public CompletableFuture<List<Vehicle>> getAllActiveVehicles() {
-        CompletableFuture<List<Vehicle>> future = new CompletableFuture<>();
-        
-        getVehiclesRef().orderByChild("isActive").equalTo(true)
-            .addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(DataSnapshot dataSnapshot) {
-                    List<Vehicle> vehicles = new ArrayList<>();
-                    for (DataSnapshot child : dataSnapshot.getChildren()) {
-                        Vehicle vehicle = convertMapToVehicle(child.getValue(), child.getKey());
-                        vehicles.add(vehicle);
-                    }
-                    future.complete(vehicles);
-                }
-                
-                @Override
-                public void onCancelled(DatabaseError databaseError) {
-                    future.completeExceptionally(new RuntimeException(databaseError.getMessage()));
+        return vehicleMirrorReady.thenApply(ready -> {
+            List<Vehicle> vehicles = new ArrayList<>();
+            for (Vehicle vehicle : vehicleMirror.values()) {
+                if (Boolean.TRUE.equals(vehicle.getIsActive())) {
+                    vehicles.add(vehicle);
                 }
-            });
-            
-        return future;
+            }
+            return vehicles;
+        });
     }
     
     public CompletableFuture<List<Vehicle>> getVehiclesWithLocation() {
-        CompletableFuture<List<Vehicle>> future = new CompletableFuture<>();
-        
-        getVehiclesRef().orderByChild("isActive").equalTo(true)
-            .addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(DataSnapshot dataSnapshot) {
-                    List<Vehicle> vehicles = new ArrayList<>();
-                    for (DataSnapshot child : dataSnapshot.getChildren()) {
-                        Vehicle vehicle = convertMapToVehicle(child.getValue(), child.getKey());
-                        // Only include vehicles with location data
-                        if (vehicle.getCurrentLatitude() != null && vehicle.getCurrentLongitude() != null) {
-                            vehicles.add(vehicle);
-                        }
-                    }
-                    future.complete(vehicles);
+        return vehicleMirrorReady.thenApply(ready -> {
+            List<Vehicle> vehicles = new ArrayList<>();
+            for (Vehicle vehicle : vehicleMirror.values()) {
+                // Only include active vehicles with location data
+                if (Boolean.TRUE.equals(vehicle.getIsActive())
+                        && vehicle.getCurrentLatitude() != null && vehicle.getCurrentLongitude() != null) {
+                    vehicles.add(vehicle);
                 }
-                
-                @Override
-                public void onCancelled(DatabaseError databaseError) {
-                    future.completeExceptionally(new RuntimeException(databaseError.getMessage()));
-                }
-            });
-            
-        return future;
+            }
+            return vehicles;
+        });
     }
     
     public CompletableFuture<Vehicle> updateVehicleLocation(String vehicleId, LocationUpdateDto locationUpdate) {
         CompletableFuture<Vehicle> future = new CompletableFuture<>();
         
         DatabaseReference vehicleRef = getVehiclesRef().child(vehicleId);
+        long updatedAt = System.currentTimeMillis();
+        long timestamp;
+        try {
+            if (locationUpdate.getAccuracy() != null
+                    && locationUpdate.getAccuracy() > SecurityConstants.MIN_LOCATION_ACCURACY_METERS) {
+                throw new BusinessLogicException("Fix accuracy is too low", "INACCURATE_FIX");
+            }
+            timestamp = locationUpdate.getTimestamp() != null
+                ? clockSkewEstimator.toServerTime(vehicleId, locationUpdate.getTimestamp(), updatedAt)
+                : updatedAt;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
         
         Map<String, Object> updates = new HashMap<>();
         updates.put("location/latitude", locationUpdate.getLatitude());
         updates.put("location/longitude", locationUpdate.getLongitude());
-        updates.put("location/timestamp", System.currentTimeMillis());
-        updates.put("updatedAt", System.currentTimeMillis());
+        updates.put("location/timestamp", timestamp);
+        updates.put("updatedAt", updatedAt);
         
         if (locationUpdate.getSpeed() != null) {
             updates.put("location/speed", locationUpdate.getSpeed());
@@ -221,13 +301,39 @@ public class FirebaseDataService {
         if (locationUpdate.getDirection() != null) {
             updates.put("location/direction", locationUpdate.getDirection());
         }
+        if (locationUpdate.getAccuracy() != null) {
+            updates.put("location/accuracy", locationUpdate.getAccuracy());
+        }
         if (locationUpdate.getFuelLevel() != null) {
             updates.put("fuelLevel", locationUpdate.getFuelLevel());
         }
         
-        vehicleRef.updateChildrenAsync(updates);
-        
-        // Fetch updated vehicle
+        // Complete from the write itself and the mirrored vehicle instead of reading the node back
+        ApiFuture<Void> write = vehicleRef.updateChildrenAsync(updates);
+        ApiFutures.addCallback(write, new ApiFutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                Vehicle cached = vehicleMirror.get(vehicleId);
+                if (cached == null) {
+                    // Not mirrored yet, fall back to a single read
+                    fetchVehicle(vehicleRef, vehicleId, future);
+                    return;
+                }
+                // The mirror follows the child events alone; acks of concurrent writes may arrive out of order
+                future.complete(applyLocationUpdate(cached, locationUpdate, timestamp));
+            }
+            
+            @Override
+            public void onFailure(Throwable throwable) {
+                logger.error("Failed to update location of vehicle {}: {}", vehicleId, throwable.getMessage());
+                future.completeExceptionally(throwable);
+            }
+        }, MoreExecutors.directExecutor());
+            
+        return future;
+    }
+    
+    private void fetchVehicle(DatabaseReference vehicleRef, String vehicleId, CompletableFuture<Vehicle> future) {
         vehicleRef.addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
@@ -240,8 +346,6 @@ public class FirebaseDataService {
                 future.completeExceptionally(new RuntimeException(databaseError.getMessage()));
             }
         });
-            
-        return future;
     }
     
     // Real-time Listeners
@@ -346,11 +450,46 @@ public class FirebaseDataService {
                 vehicle.setCurrentSpeed(((Number) location.get("speed")).doubleValue());
             }
             vehicle.setDirection((String) location.get("direction"));
+            if (location.get("timestamp") != null) {
+                vehicle.setLastLocationUpdate(toLocalDateTime(((Number) location.get("timestamp")).longValue()));
+            }
         }
+        if (map.get("fuelLevel") != null) {
+            vehicle.setFuelLevel(((Number) map.get("fuelLevel")).doubleValue());
+        }
+        
+        return vehicle;
+    }
+    
+    // Copy of a mirrored vehicle with the fields written by updateVehicleLocation applied
+    private Vehicle applyLocationUpdate(Vehicle cached, LocationUpdateDto locationUpdate, long timestamp) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(cached.getId());
+        vehicle.setVehicleNumber(cached.getVehicleNumber());
+        vehicle.setModel(cached.getModel());
+        vehicle.setBrand(cached.getBrand());
+        vehicle.setCapacity(cached.getCapacity());
+        vehicle.setVehicleType(cached.getVehicleType());
+        vehicle.setStatus(cached.getStatus());
+        vehicle.setUniversity(cached.getUniversity());
+        vehicle.setRouteName(cached.getRouteName());
+        vehicle.setRouteDescription(cached.getRouteDescription());
+        vehicle.setIsActive(cached.getIsActive());
+        
+        vehicle.setCurrentLatitude(locationUpdate.getLatitude());
+        vehicle.setCurrentLongitude(locationUpdate.getLongitude());
+        vehicle.setCurrentSpeed(locationUpdate.getSpeed() != null ? locationUpdate.getSpeed() : cached.getCurrentSpeed());
+        vehicle.setDirection(locationUpdate.getDirection() != null ? locationUpdate.getDirection() : cached.getDirection());
+        vehicle.setFuelLevel(locationUpdate.getFuelLevel() != null ? locationUpdate.getFuelLevel() : cached.getFuelLevel());
+        vehicle.setLastLocationUpdate(toLocalDateTime(timestamp));
         
         return vehicle;
     }
     
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
     private Vehicle convertDtoToVehicle(VehicleDto dto) {
         Vehicle vehicle = new Vehicle();
         vehicle.setVehicleNumber(dto.getVehicleNumber());
@@ -25,6 +25,9 @@ public class FirebaseMessagingService {
     @Autowired
     private FirebaseDatabase firebaseDatabase;
     
+    @Autowired
+    private IdGenerator idGenerator;
+    
     // Notification Types
     public enum NotificationType {
         VEHICLE_ARRIVED("Vehicle Arrived", "🚌"),
@@ -273,7 +276,7 @@ public class FirebaseMessagingService {
                                  Map<String, String> data) {
         try {
             DatabaseReference notificationsRef = firebaseDatabase.getReference("notifications");
-            String notificationId = notificationsRef.push().getKey();
+            String notificationId = idGenerator.nextIdString();
             
             Map<String, Object> notification = new HashMap<>();
             notification.put("recipient", recipient);
@@ -0,0 +1,126 @@
+package com.vehicletracking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vehicletracking.dto.VehicleResponseDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fleet location lists serialized once per fleet version and shared by every reader,
+ * so serialization cost follows the change rate rather than the number of clients
+ */
+@Service
+public class FleetSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetSnapshotService.class);
+
+    private static final String ALL_UNIVERSITIES = "";
+
+    // Smaller bodies are not worth compressing
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private static final int MAX_SNAPSHOTS = 256;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private FleetVersionService fleetVersionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Cache<String, Snapshot> snapshots = Caffeine.newBuilder()
+            .maximumSize(MAX_SNAPSHOTS)
+            .build();
+
+    public Snapshot getFleetSnapshot() {
+        return getSnapshot(ALL_UNIVERSITIES);
+    }
+
+    public Snapshot getUniversitySnapshot(String university) {
+        return getSnapshot(university);
+    }
+
+    private Snapshot getSnapshot(String university) {
+        long version = fleetVersionService.getFleetVersion();
+        Snapshot snapshot = snapshots.getIfPresent(university);
+        if (snapshot != null && snapshot.version >= version) {
+            return snapshot;
+        }
+
+        // Concurrent readers of a stale snapshot wait for a single rebuild
+        return snapshots.asMap().compute(university, (key, current) -> {
+            if (current != null && current.version >= version) {
+                return current;
+            }
+            return build(key, version);
+        });
+    }
+
+    private Snapshot build(String university, long version) {
+        List<VehicleResponseDto> vehicles = ALL_UNIVERSITIES.equals(university)
+            ? vehicleService.getVehiclesWithLocation()
+            : vehicleService.getActiveVehiclesWithLocationByUniversity(university);
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(vehicles);
+            byte[] gzip = json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+
+            logger.debug("Built fleet snapshot v{} for '{}': {} vehicles, {} bytes", version, university,
+                vehicles.size(), json.length);
+            return new Snapshot(version, json, gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize fleet snapshot", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serialized vehicle list of one fleet version
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private Snapshot(long version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean hasGzip() {
+            return gzip != null;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
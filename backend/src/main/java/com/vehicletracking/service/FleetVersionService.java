@@ -0,0 +1,60 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.event.LocationFixEvent;
+import com.vehicletracking.event.VehicleChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the fleet, exposed as ETags so polling clients only
+ * download vehicle lists again after something has changed. The metadata
+ * version moves on vehicle changes, the fleet version also on every location fix.
+ */
+@Service
+public class FleetVersionService {
+    
+    // Distinguishes versions of different server runs, since counters restart at zero
+    private final String bootId = UUID.randomUUID().toString().substring(0, 8);
+    
+    private final AtomicLong metadataVersion = new AtomicLong();
+    private final AtomicLong fleetVersion = new AtomicLong();
+    
+    // Both events are published after the change is saved, so a version read
+    // before loading a list never labels data older than that version
+    @EventListener
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        metadataVersion.incrementAndGet();
+        fleetVersion.incrementAndGet();
+    }
+    
+    @EventListener
+    public void onLocationFix(LocationFixEvent event) {
+        fleetVersion.incrementAndGet();
+    }
+    
+    public long getMetadataVersion() {
+        return metadataVersion.get();
+    }
+    
+    public String getMetadataETag() {
+        return "\"m-" + bootId + "-" + metadataVersion.get() + "\"";
+    }
+    
+    public long getFleetVersion() {
+        return fleetVersion.get();
+    }
+    
+    public String getFleetETag() {
+        return getFleetETag(fleetVersion.get(), null);
+    }
+    
+    /**
+     * ETag of a fleet version; each representation of a resource (gzip, binary) gets its own variant
+     */
+    public String getFleetETag(long version, String variant) {
+        return "\"f-" + bootId + "-" + version + (variant != null ? "-" + variant : "") + "\"";
+    }
+}
@@ -0,0 +1,77 @@
+package com.vehicletracking.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unique, time-ordered ids for chat messages, announcements and notifications. An id packs
+ * milliseconds since 2024 (41 bits), a per-millisecond sequence (12 bits) and the node (10 bits),
+ * so ids of all nodes sort by creation time, and is written as 13 Crockford base32 characters,
+ * which sort the same way as the numbers.
+ */
+@Service
+public class IdGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGenerator.class);
+
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH_MILLIS = 1704067200000L;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    private static final int ID_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    @Value("${app.id.node:-1}")
+    private long configuredNode;
+
+    private long node;
+
+    // Timestamp and sequence of the last id; bumping it past the sequence borrows the next millisecond
+    private final AtomicLong lastTick = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (configuredNode < 0) {
+            // Unconfigured nodes pick one at random; set app.id.node when running several instances
+            node = ThreadLocalRandom.current().nextLong(MAX_NODE + 1);
+            logger.info("No app.id.node configured, using random node {}", node);
+        } else {
+            node = configuredNode & MAX_NODE;
+        }
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long tick = lastTick.updateAndGet(last -> Math.max(last + 1, now));
+        return (tick << NODE_BITS) | node;
+    }
+
+    public String nextIdString() {
+        return encode(nextId());
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Creation time of an id in epoch milliseconds
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
@@ -0,0 +1,99 @@
+package com.vehicletracking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latest accepted location fix of each vehicle. Fixes are ordered by fix time with a
+ * compare-and-set on the vehicle's own entry, so stale and duplicate fixes are dropped
+ * without locking and writers of different vehicles never contend.
+ */
+@Service
+public class LiveLocationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveLocationStore.class);
+
+    private final Map<String, AtomicReference<LiveFix>> fixes = new ConcurrentHashMap<>();
+
+    /**
+     * Make the fix the vehicle's latest, unless a fix taken at the same time or later is already held
+     */
+    public boolean offer(String vehicleId, LiveFix fix) {
+        AtomicReference<LiveFix> latest = fixes.computeIfAbsent(vehicleId, id -> new AtomicReference<>());
+        while (true) {
+            LiveFix current = latest.get();
+            if (current != null && current.fixTimeMillis >= fix.fixTimeMillis) {
+                logger.debug("Dropped fix of vehicle {} at {}, already at {}", vehicleId,
+                    fix.fixTimeMillis, current.fixTimeMillis);
+                return false;
+            }
+            if (latest.compareAndSet(current, fix)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Start ordering from a persisted fix if nothing newer has been seen yet
+     */
+    public void seed(String vehicleId, LiveFix fix) {
+        AtomicReference<LiveFix> latest = fixes.computeIfAbsent(vehicleId, id -> new AtomicReference<>());
+        latest.compareAndSet(null, fix);
+    }
+
+    public LiveFix get(String vehicleId) {
+        AtomicReference<LiveFix> latest = fixes.get(vehicleId);
+        return latest != null ? latest.get() : null;
+    }
+
+    /**
+     * Immutable location fix of one vehicle
+     */
+    public static final class LiveFix {
+        private final double latitude;
+        private final double longitude;
+        private final Double speed;
+        private final String direction;
+        private final Double fuelLevel;
+        private final long fixTimeMillis;
+
+        public LiveFix(double latitude, double longitude, Double speed, String direction, Double fuelLevel,
+                       long fixTimeMillis) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.speed = speed;
+            this.direction = direction;
+            this.fuelLevel = fuelLevel;
+            this.fixTimeMillis = fixTimeMillis;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public Double getSpeed() {
+            return speed;
+        }
+
+        public String getDirection() {
+            return direction;
+        }
+
+        public Double getFuelLevel() {
+            return fuelLevel;
+        }
+
+        public long getFixTimeMillis() {
+            return fixTimeMillis;
+        }
+    }
+}
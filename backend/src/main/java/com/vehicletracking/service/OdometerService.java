@@ -0,0 +1,273 @@
+package com.vehicletracking.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+import com.vehicletracking.config.SecurityConstants;
+import com.vehicletracking.util.GeoUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Accumulates driven distance per vehicle and per active trip as location fixes arrive,
+ * so dashboards read totals in O(1) instead of replaying location history.
+ * Totals are checkpointed to the Realtime Database and restored on startup.
+ */
+@Service
+public class OdometerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OdometerService.class);
+
+    // Segments shorter than this are GPS jitter from a stationary vehicle
+    private static final double MIN_SEGMENT_KM = 0.005;
+
+    @Autowired
+    private FirebaseDatabase firebaseDatabase;
+
+    private final Map<String, VehicleOdometer> odometers = new ConcurrentHashMap<>();
+    private final DoubleAdder fleetDistanceKm = new DoubleAdder();
+
+    // Checkpointing waits for the restore so persisted totals are never overwritten
+    private volatile boolean checkpointsRestored = false;
+
+    @PostConstruct
+    public void restoreCheckpoints() {
+        DatabaseReference ref = getOdometersRef();
+        if (ref == null) {
+            return;
+        }
+
+        ref.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot) {
+                int restored = 0;
+                for (DataSnapshot child : dataSnapshot.getChildren()) {
+                    if (!(child.getValue() instanceof Map)) {
+                        continue;
+                    }
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> data = (Map<String, Object>) child.getValue();
+                    restore(child.getKey(), data);
+                    restored++;
+                }
+                checkpointsRestored = true;
+                logger.info("Restored odometer checkpoints for {} vehicles", restored);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError) {
+                logger.error("Failed to restore odometer checkpoints, checkpointing disabled: {}",
+                    databaseError.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Add the segment from the vehicle's previous fix to this one
+     */
+    public void recordFix(String vehicleId, double latitude, double longitude, long fixTimeMillis) {
+        VehicleOdometer odometer = odometers.computeIfAbsent(vehicleId, id -> new VehicleOdometer());
+        double segmentKm = 0.0;
+
+        synchronized (odometer) {
+            if (odometer.hasFix) {
+                if (fixTimeMillis <= odometer.lastFixMillis) {
+                    return;
+                }
+
+                double distance = GeoUtils.haversineKm(
+                    odometer.lastLatitude, odometer.lastLongitude, latitude, longitude);
+                double hours = (fixTimeMillis - odometer.lastFixMillis) / 3_600_000.0;
+
+                if (distance < MIN_SEGMENT_KM) {
+                    // Keep the previous anchor so slow creep still adds up
+                    return;
+                }
+
+                // Drop teleports caused by GPS glitches, but re-anchor on the new position
+                if (distance / hours <= SecurityConstants.MAX_SPEED_KMH) {
+                    segmentKm = distance;
+                    odometer.totalKm += distance;
+                    if (odometer.activeTripId != null) {
+                        odometer.tripKm += distance;
+                    }
+                    odometer.changes++;
+                }
+            }
+
+            odometer.lastLatitude = latitude;
+            odometer.lastLongitude = longitude;
+            odometer.lastFixMillis = fixTimeMillis;
+            odometer.hasFix = true;
+        }
+
+        if (segmentKm > 0) {
+            fleetDistanceKm.add(segmentKm);
+        }
+    }
+
+    /**
+     * Start accumulating trip distance for the vehicle
+     */
+    public void startTrip(String vehicleId, String tripId) {
+        VehicleOdometer odometer = odometers.computeIfAbsent(vehicleId, id -> new VehicleOdometer());
+        synchronized (odometer) {
+            odometer.activeTripId = tripId;
+            odometer.tripKm = 0.0;
+            odometer.changes++;
+        }
+    }
+
+    /**
+     * Stop accumulating trip distance and return the distance covered during the trip
+     */
+    public double endTrip(String vehicleId, String tripId) {
+        VehicleOdometer odometer = odometers.get(vehicleId);
+        if (odometer == null) {
+            return 0.0;
+        }
+
+        synchronized (odometer) {
+            if (tripId == null || !tripId.equals(odometer.activeTripId)) {
+                return 0.0;
+            }
+            double tripKm = odometer.tripKm;
+            odometer.activeTripId = null;
+            odometer.tripKm = 0.0;
+            odometer.changes++;
+            return tripKm;
+        }
+    }
+
+    public double getVehicleDistanceKm(String vehicleId) {
+        VehicleOdometer odometer = odometers.get(vehicleId);
+        if (odometer == null) {
+            return 0.0;
+        }
+        synchronized (odometer) {
+            return odometer.totalKm;
+        }
+    }
+
+    public double getActiveTripDistanceKm(String vehicleId) {
+        VehicleOdometer odometer = odometers.get(vehicleId);
+        if (odometer == null) {
+            return 0.0;
+        }
+        synchronized (odometer) {
+            return odometer.activeTripId != null ? odometer.tripKm : 0.0;
+        }
+    }
+
+    public double getFleetDistanceKm() {
+        return fleetDistanceKm.sum();
+    }
+
+    /**
+     * Persist the totals of vehicles that moved since the last checkpoint
+     */
+    @Scheduled(fixedDelayString = "${app.odometer.checkpoint.interval:60000}")
+    public void checkpoint() {
+        DatabaseReference ref = getOdometersRef();
+        if (ref == null || !checkpointsRestored) {
+            return;
+        }
+
+        Map<String, Object> updates = new HashMap<>();
+        // Change count of every vehicle as written, to mark it saved once the write succeeds
+        Map<String, Long> written = new HashMap<>();
+        odometers.forEach((vehicleId, odometer) -> {
+            synchronized (odometer) {
+                if (odometer.changes == odometer.savedChanges) {
+                    return;
+                }
+                updates.put(vehicleId + "/totalKm", odometer.totalKm);
+                updates.put(vehicleId + "/activeTripId", odometer.activeTripId);
+                updates.put(vehicleId + "/tripKm", odometer.tripKm);
+                updates.put(vehicleId + "/updatedAt", System.currentTimeMillis());
+                written.put(vehicleId, odometer.changes);
+            }
+        });
+
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        ApiFuture<Void> write = ref.updateChildrenAsync(updates);
+        ApiFutures.addCallback(write, new ApiFutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                // Vehicles that changed again since stay dirty for the next checkpoint
+                written.forEach((vehicleId, changes) -> {
+                    VehicleOdometer odometer = odometers.get(vehicleId);
+                    synchronized (odometer) {
+                        odometer.savedChanges = Math.max(odometer.savedChanges, changes);
+                    }
+                });
+                logger.debug("Checkpointed odometer totals of {} vehicles", written.size());
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                logger.warn("Failed to checkpoint odometer totals, retrying at the next checkpoint: {}",
+                    throwable.getMessage());
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void restore(String vehicleId, Map<String, Object> data) {
+        VehicleOdometer odometer = odometers.computeIfAbsent(vehicleId, id -> new VehicleOdometer());
+        double restoredKm = 0.0;
+
+        synchronized (odometer) {
+            // Fixes that arrived before the checkpoint loaded are added on top of it
+            if (data.get("totalKm") instanceof Number) {
+                restoredKm = ((Number) data.get("totalKm")).doubleValue();
+                odometer.totalKm += restoredKm;
+            }
+            if (odometer.activeTripId == null && data.get("activeTripId") instanceof String) {
+                odometer.activeTripId = (String) data.get("activeTripId");
+                if (data.get("tripKm") instanceof Number) {
+                    odometer.tripKm += ((Number) data.get("tripKm")).doubleValue();
+                }
+            }
+        }
+
+        fleetDistanceKm.add(restoredKm);
+    }
+
+    private DatabaseReference getOdometersRef() {
+        if (firebaseDatabase == null) {
+            return null;
+        }
+        return firebaseDatabase.getReference("odometers");
+    }
+
+    private static final class VehicleOdometer {
+        private boolean hasFix;
+        private double lastLatitude;
+        private double lastLongitude;
+        private long lastFixMillis;
+        private double totalKm;
+        private double tripKm;
+        private String activeTripId;
+        // Changes made, and the most of them known to be checkpointed
+        private long changes;
+        private long savedChanges;
+    }
+}
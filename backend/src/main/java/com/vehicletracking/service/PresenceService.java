@@ -0,0 +1,174 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.dto.PresenceDelta;
+import com.vehicletracking.service.ChatRoomService.ChatRoom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who is connected, driven by the STOMP session events. Sessions that stop answering heartbeats
+ * are closed by the broker and leave through the disconnect event like any other, so entries
+ * only exist for live sessions. Users online and sessions per chat room are kept as counters,
+ * and only their changes are published.
+ */
+@Service
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    public static final String PRESENCE_TOPIC = "/topic/presence";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+
+    // Live sessions per user name and per chat room destination; absent when zero
+    private final Map<String, Integer> userSessions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> roomSessions = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        Principal user = event.getUser();
+        SessionPresence presence = new SessionPresence(user != null ? user.getName() : null);
+        if (sessions.putIfAbsent(sessionId, presence) == null && presence.userName != null) {
+            userJoined(presence.userName);
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        SessionPresence presence = sessions.get(accessor.getSessionId());
+        if (presence == null || ChatRoomService.isPattern(accessor.getDestination())) {
+            return;
+        }
+        ChatRoom room = ChatRoomService.roomOf(accessor.getDestination());
+        if (room == null || room.isPresenceFeed()) {
+            return;
+        }
+
+        String destination = room.getDestination();
+        presence.subscriptions.put(accessor.getSubscriptionId(), destination);
+        if (presence.rooms.merge(destination, 1, Integer::sum) == 1) {
+            roomChanged(room, presence.userName, true);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        SessionPresence presence = sessions.get(accessor.getSessionId());
+        if (presence == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        String destination = presence.subscriptions.remove(accessor.getSubscriptionId());
+        if (destination != null && presence.rooms.computeIfPresent(destination, (d, n) -> n > 1 ? n - 1 : null) == null) {
+            roomChanged(ChatRoomService.roomOf(destination), presence.userName, false);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // Disconnects may be reported more than once; only the first finds the session
+        SessionPresence presence = sessions.remove(event.getSessionId());
+        if (presence == null) {
+            return;
+        }
+
+        for (String destination : presence.rooms.keySet()) {
+            roomChanged(ChatRoomService.roomOf(destination), presence.userName, false);
+        }
+        if (presence.userName != null) {
+            userLeft(presence.userName);
+        }
+    }
+
+    /**
+     * Name shown for a session, for clients that announce themselves after connecting
+     */
+    public void setDisplayName(String sessionId, String displayName) {
+        SessionPresence presence = sessions.get(sessionId);
+        if (presence != null) {
+            presence.displayName = displayName;
+        }
+    }
+
+    public Collection<String> getOnlineUsers() {
+        List<String> names = new ArrayList<>();
+        for (SessionPresence presence : sessions.values()) {
+            String name = presence.displayName != null ? presence.displayName : presence.userName;
+            if (name != null && !names.contains(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    public int getOnlineUserCount() {
+        return userSessions.size();
+    }
+
+    public int getRoomSessionCount(ChatRoom room) {
+        return roomSessions.getOrDefault(room.getDestination(), 0);
+    }
+
+    private void userJoined(String userName) {
+        if (userSessions.merge(userName, 1, Integer::sum) == 1) {
+            publish(PRESENCE_TOPIC, new PresenceDelta(userName, null, true, userSessions.size()));
+        }
+    }
+
+    private void userLeft(String userName) {
+        if (userSessions.computeIfPresent(userName, (u, n) -> n > 1 ? n - 1 : null) == null) {
+            publish(PRESENCE_TOPIC, new PresenceDelta(userName, null, false, userSessions.size()));
+        }
+    }
+
+    private void roomChanged(ChatRoom room, String userName, boolean joined) {
+        Integer count = joined
+            ? roomSessions.merge(room.getDestination(), 1, Integer::sum)
+            : roomSessions.computeIfPresent(room.getDestination(), (d, n) -> n > 1 ? n - 1 : null);
+        publish(room.getPresenceDestination(),
+            new PresenceDelta(userName, room.getDestination(), joined, count != null ? count : 0));
+    }
+
+    private void publish(String destination, PresenceDelta delta) {
+        try {
+            messagingTemplate.convertAndSend(destination, delta);
+        } catch (Exception e) {
+            logger.debug("Failed to publish presence change to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    private static final class SessionPresence {
+        private final String userName;
+        private volatile String displayName;
+
+        // Subscription id to room destination, and subscriptions per room of this session
+        private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+        private final Map<String, Integer> rooms = new ConcurrentHashMap<>();
+
+        private SessionPresence(String userName) {
+            this.userName = userName;
+        }
+    }
+}
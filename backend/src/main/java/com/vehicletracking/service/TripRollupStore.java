@@ -0,0 +1,308 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.event.TripStatusChangedEvent;
+import com.vehicletracking.model.Trip;
+import com.vehicletracking.model.TripStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hourly and daily trip rollups per vehicle, route, university and for the whole fleet.
+ * Each bucket is a fixed array of counters, so a range query merges one bucket per
+ * day (plus hourly buckets for partial days) instead of scanning trips.
+ */
+@Service
+public class TripRollupStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripRollupStore.class);
+
+    public enum Dimension {
+        FLEET, VEHICLE, ROUTE, UNIVERSITY
+    }
+
+    private static final String FLEET_KEY = "";
+
+    // Counter layout of a bucket: one slot per trip status followed by completed-trip totals
+    private static final int STATUS_SLOTS = TripStatus.values().length;
+    private static final int DISTANCE_METERS = STATUS_SLOTS;
+    private static final int DURATION_SECONDS = STATUS_SLOTS + 1;
+    private static final int PASSENGERS = STATUS_SLOTS + 2;
+    private static final int SCHEDULED_TRIPS = STATUS_SLOTS + 3;
+    private static final int ON_TIME_TRIPS = STATUS_SLOTS + 4;
+    private static final int SLOTS = STATUS_SLOTS + 5;
+
+    @Value("${app.rollup.hourly.retention.days:35}")
+    private int hourlyRetentionDays;
+
+    private final Map<Dimension, Map<String, Series>> series = new EnumMap<>(Dimension.class);
+
+    public TripRollupStore() {
+        for (Dimension dimension : Dimension.values()) {
+            series.put(dimension, new ConcurrentHashMap<>());
+        }
+    }
+
+    @EventListener
+    public void onTripStatusChanged(TripStatusChangedEvent event) {
+        Trip trip = event.getTrip();
+        TripStatus previous = event.getPreviousStatus();
+        if (previous == trip.getStatus()) {
+            return;
+        }
+
+        // Only trips that have started are counted, so a start is the first time a trip is seen
+        TripStatus counted = previous == TripStatus.IN_PROGRESS || previous == TripStatus.DELAYED ? previous : null;
+        LocalDateTime startedAt = trip.getActualStartTime() != null ? trip.getActualStartTime() : trip.getCreatedAt();
+        long[] delta = delta(counted, trip);
+
+        add(Dimension.FLEET, FLEET_KEY, startedAt, delta);
+        add(Dimension.VEHICLE, trip.getVehicleId(), startedAt, delta);
+        add(Dimension.ROUTE, trip.getRouteName(), startedAt, delta);
+        add(Dimension.UNIVERSITY, trip.getUniversity(), startedAt, delta);
+    }
+
+    /**
+     * Totals of trips started between the two dates, inclusive
+     */
+    public Rollup query(Dimension dimension, String key, LocalDate startDate, LocalDate endDate) {
+        long[] totals = new long[SLOTS];
+        Series target = series.get(dimension).get(keyOf(dimension, key));
+        if (target != null && !startDate.isAfter(endDate)) {
+            mergeRange(target.daily, startDate.toEpochDay(), endDate.toEpochDay() + 1, totals);
+        }
+        return new Rollup(totals);
+    }
+
+    /**
+     * Totals of trips started in [from, to), using hourly buckets only for partial days
+     */
+    public Rollup query(Dimension dimension, String key, LocalDateTime from, LocalDateTime to) {
+        long[] totals = new long[SLOTS];
+        Series target = series.get(dimension).get(keyOf(dimension, key));
+        if (target == null || !from.isBefore(to)) {
+            return new Rollup(totals);
+        }
+
+        long fromHour = epochHour(from);
+        long toHour = epochHour(to) + (to.equals(to.truncatedTo(ChronoUnit.HOURS)) ? 0 : 1);
+        long firstFullDay = Math.floorDiv(fromHour + 23, 24);
+        long lastFullDay = Math.floorDiv(toHour, 24);
+
+        if (firstFullDay >= lastFullDay) {
+            mergeRange(target.hourly, fromHour, toHour, totals);
+        } else {
+            mergeRange(target.hourly, fromHour, firstFullDay * 24, totals);
+            mergeRange(target.daily, firstFullDay, lastFullDay, totals);
+            mergeRange(target.hourly, lastFullDay * 24, toHour, totals);
+        }
+        return new Rollup(totals);
+    }
+
+    /**
+     * Number of trips started on each day of the range that had any
+     */
+    public Map<LocalDate, Long> tripsPerDay(Dimension dimension, String key, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Long> perDay = new TreeMap<>();
+        Series target = series.get(dimension).get(keyOf(dimension, key));
+        if (target == null || startDate.isAfter(endDate)) {
+            return perDay;
+        }
+
+        target.daily.subMap(startDate.toEpochDay(), true, endDate.toEpochDay(), true)
+            .forEach((day, bucket) -> perDay.put(LocalDate.ofEpochDay(day), new Rollup(bucket.snapshot()).getTripCount()));
+        return perDay;
+    }
+
+    /**
+     * Number of trips started in the range per key of the dimension, for keys that had any
+     */
+    public Map<String, Long> tripsByKey(Dimension dimension, LocalDate startDate, LocalDate endDate) {
+        Map<String, Long> tripCounts = new HashMap<>();
+        for (String key : series.get(dimension).keySet()) {
+            long count = query(dimension, key, startDate, endDate).getTripCount();
+            if (count > 0) {
+                tripCounts.put(key, count);
+            }
+        }
+        return tripCounts;
+    }
+
+    /**
+     * Keys of the dimension with the most trips started in the range
+     */
+    public List<String> topKeys(Dimension dimension, LocalDate startDate, LocalDate endDate, int limit) {
+        Map<String, Long> tripCounts = tripsByKey(dimension, startDate, endDate);
+        List<String> keys = new ArrayList<>(tripCounts.keySet());
+        keys.sort(Comparator.comparing(tripCounts::get, Comparator.reverseOrder()));
+        return keys.size() > limit ? keys.subList(0, limit) : keys;
+    }
+
+    /**
+     * All-time totals of one key
+     */
+    public Rollup lifetime(Dimension dimension, String key) {
+        Series target = series.get(dimension).get(keyOf(dimension, key));
+        return new Rollup(target != null ? target.lifetime.snapshot() : new long[SLOTS]);
+    }
+
+    /**
+     * All-time totals of every key of the dimension
+     */
+    public Map<String, Rollup> lifetimeByKey(Dimension dimension) {
+        Map<String, Rollup> totals = new HashMap<>();
+        series.get(dimension).forEach((key, target) -> totals.put(key, new Rollup(target.lifetime.snapshot())));
+        return totals;
+    }
+
+    /**
+     * Drop hourly buckets past the retention window; daily buckets are kept
+     */
+    @Scheduled(cron = "0 5 * * * *")
+    public void pruneHourlyBuckets() {
+        long oldestHour = epochHour(LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay());
+        int pruned = 0;
+        for (Map<String, Series> byKey : series.values()) {
+            for (Series target : byKey.values()) {
+                ConcurrentNavigableMap<Long, Bucket> expired = target.hourly.headMap(oldestHour);
+                pruned += expired.size();
+                expired.clear();
+            }
+        }
+        if (pruned > 0) {
+            logger.debug("Pruned {} hourly trip rollup buckets", pruned);
+        }
+    }
+
+    private void add(Dimension dimension, String key, LocalDateTime startedAt, long[] delta) {
+        if (key == null) {
+            return;
+        }
+        Series target = series.get(dimension).computeIfAbsent(key, k -> new Series());
+        target.hourly.computeIfAbsent(epochHour(startedAt), hour -> new Bucket()).add(delta);
+        target.daily.computeIfAbsent(startedAt.toLocalDate().toEpochDay(), day -> new Bucket()).add(delta);
+        target.lifetime.add(delta);
+    }
+
+    private static long[] delta(TripStatus previous, Trip trip) {
+        long[] delta = new long[SLOTS];
+        if (previous != null) {
+            delta[previous.ordinal()]--;
+        }
+        delta[trip.getStatus().ordinal()]++;
+
+        if (trip.getStatus() == TripStatus.COMPLETED) {
+            delta[DISTANCE_METERS] = trip.getActualDistance() != null ? Math.round(trip.getActualDistance() * 1000) : 0;
+            delta[DURATION_SECONDS] = trip.getActualDuration() != null ? Math.round(trip.getActualDuration() * 60) : 0;
+            delta[PASSENGERS] = trip.getPassengerCount() != null ? trip.getPassengerCount() : 0;
+            if (trip.getScheduledEndTime() != null) {
+                delta[SCHEDULED_TRIPS] = 1;
+                delta[ON_TIME_TRIPS] = trip.isOnTime() ? 1 : 0;
+            }
+        }
+        return delta;
+    }
+
+    private static void mergeRange(ConcurrentSkipListMap<Long, Bucket> buckets, long from, long to, long[] totals) {
+        if (from >= to) {
+            return;
+        }
+        for (Bucket bucket : buckets.subMap(from, true, to, false).values()) {
+            bucket.mergeInto(totals);
+        }
+    }
+
+    private static String keyOf(Dimension dimension, String key) {
+        return dimension == Dimension.FLEET ? FLEET_KEY : key;
+    }
+
+    private static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    private static final class Series {
+        private final ConcurrentSkipListMap<Long, Bucket> hourly = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<Long, Bucket> daily = new ConcurrentSkipListMap<>();
+        private final Bucket lifetime = new Bucket();
+    }
+
+    private static final class Bucket {
+        private final AtomicLongArray counters = new AtomicLongArray(SLOTS);
+
+        private void add(long[] delta) {
+            for (int i = 0; i < SLOTS; i++) {
+                if (delta[i] != 0) {
+                    counters.addAndGet(i, delta[i]);
+                }
+            }
+        }
+
+        private void mergeInto(long[] totals) {
+            for (int i = 0; i < SLOTS; i++) {
+                totals[i] += counters.get(i);
+            }
+        }
+
+        private long[] snapshot() {
+            long[] values = new long[SLOTS];
+            mergeInto(values);
+            return values;
+        }
+    }
+
+    /**
+     * Merged totals of one or more buckets
+     */
+    public static final class Rollup {
+        private final long[] values;
+
+        private Rollup(long[] values) {
+            this.values = values;
+        }
+
+        public long getTripCount() {
+            long total = 0;
+            for (int i = 0; i < STATUS_SLOTS; i++) {
+                total += values[i];
+            }
+            return total;
+        }
+
+        public long getTripCount(TripStatus status) {
+            return values[status.ordinal()];
+        }
+
+        public double getDistanceKm() {
+            return values[DISTANCE_METERS] / 1000.0;
+        }
+
+        public double getDurationMinutes() {
+            return values[DURATION_SECONDS] / 60.0;
+        }
+
+        public long getPassengers() {
+            return values[PASSENGERS];
+        }
+
+        /**
+         * Percentage of completed scheduled trips that arrived on time, or null without scheduled trips
+         */
+        public Double getOnTimePercentage() {
+            long scheduled = values[SCHEDULED_TRIPS];
+            return scheduled > 0 ? values[ON_TIME_TRIPS] * 100.0 / scheduled : null;
+        }
+    }
+}
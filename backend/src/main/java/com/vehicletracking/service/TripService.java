@@ -0,0 +1,39 @@
+package com.vehicletracking.service;
+
+import com.vehicletracking.model.Trip;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface TripService {
+    
+    /**
+     * Start a trip for the trip's vehicle
+     */
+    Trip startTrip(Trip trip);
+    
+    /**
+     * Complete an in-progress trip
+     */
+    Trip completeTrip(String tripId);
+    
+    /**
+     * Cancel a trip
+     */
+    Trip cancelTrip(String tripId);
+    
+    /**
+     * Get trip by ID
+     */
+    Optional<Trip> getTripById(String tripId);
+    
+    /**
+     * Get the in-progress trip of a vehicle
+     */
+    Optional<Trip> getActiveTripByVehicle(String vehicleId);
+    
+    /**
+     * Get trips driven by a driver
+     */
+    List<Trip> getTripsByDriver(String driverId);
+}
@@ -2,7 +2,8 @@ package com.vehicletracking.service;
 
 import com.vehicletracking.dto.VehicleDto;
 import com.vehicletracking.dto.VehicleResponseDto;
-import com.vehicletracking.dto.LocationUpdateDto;
+import com.vehicletracking.dto.VehicleMetadataDto;
+import com.vehicletracking.dto.VehicleTelemetryDto;
 import com.vehicletracking.model.VehicleType;
 import com.vehicletracking.model.VehicleStatus;
 
@@ -47,7 +48,16 @@ public interface VehicleService {
     
     List<VehicleResponseDto> getActiveVehiclesWithLocationByUniversity(String university);
     
-    VehicleResponseDto updateVehicleLocation(String vehicleId, LocationUpdateDto locationUpdate);
+    VehicleTelemetryDto saveLiveLocation(String vehicleId);
+    
+    // Live telemetry and static metadata views
+    List<VehicleTelemetryDto> getFleetTelemetry();
+    
+    List<VehicleTelemetryDto> getFleetTelemetryByUniversity(String university);
+    
+    List<VehicleMetadataDto> getFleetMetadata();
+    
+    List<VehicleMetadataDto> getFleetMetadataByUniversity(String university);
     
     // Status Management
     VehicleResponseDto updateVehicleStatus(String vehicleId, VehicleStatus status);
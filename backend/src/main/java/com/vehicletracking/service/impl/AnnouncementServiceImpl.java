@@ -4,7 +4,12 @@ import com.vehicletracking.dto.AnnouncementStats;
 import com.vehicletracking.model.Announcement;
 import com.vehicletracking.model.AnnouncementPriority;
 import com.vehicletracking.model.Role;
+import com.vehicletracking.service.AnnouncementFeedIndex;
+import com.vehicletracking.service.AnnouncementReadTracker;
+import com.vehicletracking.service.AnnouncementSearchIndex;
 import com.vehicletracking.service.AnnouncementService;
+import com.vehicletracking.service.IdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -15,17 +20,30 @@ import java.util.stream.Collectors;
 @Service
 public class AnnouncementServiceImpl implements AnnouncementService {
 
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private AnnouncementFeedIndex feedIndex;
+
+    @Autowired
+    private AnnouncementReadTracker readTracker;
+
+    @Autowired
+    private AnnouncementSearchIndex searchIndex;
+
     // In-memory storage (in production, use a database)
     private final Map<String, Announcement> announcements = new ConcurrentHashMap<>();
-    private final Map<String, Set<String>> userReadAnnouncements = new ConcurrentHashMap<>();
 
     @Override
     public Announcement createAnnouncement(Announcement announcement) {
-        String id = UUID.randomUUID().toString();
+        String id = idGenerator.nextIdString();
         announcement.setId(id);
         announcement.setCreatedAt(LocalDateTime.now());
         announcement.setUpdatedAt(LocalDateTime.now());
         announcements.put(id, announcement);
+        feedIndex.index(announcement);
+        searchIndex.index(announcement);
         return announcement;
     }
 
@@ -45,28 +63,28 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 
     @Override
     public List<Announcement> getAnnouncementsForRole(Role role) {
-        return announcements.values().stream()
-                .filter(a -> a.getIsActive())
-                .filter(a -> !a.isExpired())
-                .filter(a -> a.isVisibleToRole(role))
-                .sorted((a, b) -> {
-                    // Pinned announcements first
-                    if (a.getIsPinned() && !b.getIsPinned()) return -1;
-                    if (!a.getIsPinned() && b.getIsPinned()) return 1;
-                    // Then by priority
-                    int priorityCompare = b.getPriority().compareTo(a.getPriority());
-                    if (priorityCompare != 0) return priorityCompare;
-                    // Finally by creation date
-                    return b.getCreatedAt().compareTo(a.getCreatedAt());
-                })
-                .collect(Collectors.toList());
+        // Pinned first, then by priority, then newest first
+        return feedIndex.feed(role);
+    }
+
+    @Override
+    public List<Announcement> getAnnouncementsForRole(Role role, int offset, int limit) {
+        return feedIndex.page(role, offset, limit);
+    }
+
+    @Override
+    public List<Announcement> getAnnouncementsForRole(Role role, String afterId, int limit) {
+        Announcement after = announcements.get(afterId);
+        if (after == null) {
+            throw new RuntimeException("Announcement not found with id: " + afterId);
+        }
+        return feedIndex.pageAfter(role, after, limit);
     }
 
     @Override
     public List<Announcement> getPinnedAnnouncements() {
         return announcements.values().stream()
                 .filter(a -> a.getIsActive())
-                .filter(a -> !a.isExpired())
                 .filter(Announcement::getIsPinned)
                 .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
                 .collect(Collectors.toList());
@@ -80,7 +98,6 @@ public class AnnouncementServiceImpl implements AnnouncementService {
             
             return announcements.values().stream()
                     .filter(a -> a.getIsActive())
-                    .filter(a -> !a.isExpired())
                     .filter(a -> a.getPriority().equals(priorityEnum))
                     .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
                     .collect(Collectors.toList());
@@ -93,7 +110,6 @@ public class AnnouncementServiceImpl implements AnnouncementService {
     public List<Announcement> getActiveAnnouncements() {
         return announcements.values().stream()
                 .filter(a -> a.getIsActive())
-                .filter(a -> !a.isExpired())
                 .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
                 .collect(Collectors.toList());
     }
@@ -111,14 +127,17 @@ public class AnnouncementServiceImpl implements AnnouncementService {
         announcement.setViews(existing.getViews());
         
         announcements.put(id, announcement);
+        feedIndex.index(announcement);
+        searchIndex.index(announcement);
         return announcement;
     }
 
     @Override
     public void deleteAnnouncement(String id) {
         announcements.remove(id);
-        // Also remove from read tracking
-        userReadAnnouncements.values().forEach(set -> set.remove(id));
+        // Read state needs no cleanup, the announcement just leaves the feeds it is counted against
+        feedIndex.remove(id);
+        searchIndex.remove(id);
     }
 
     @Override
@@ -130,12 +149,16 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 
         announcement.setIsPinned(!announcement.getIsPinned());
         announcement.setUpdatedAt(LocalDateTime.now());
+        feedIndex.index(announcement);
         return announcement;
     }
 
     @Override
-    public void markAsRead(String announcementId, String userId) {
-        userReadAnnouncements.computeIfAbsent(userId, k -> new HashSet<>()).add(announcementId);
+    public void markAsRead(String announcementId, String userId, Role userRole) {
+        int sequence = feedIndex.sequenceOf(announcementId);
+        if (sequence >= 0) {
+            readTracker.markRead(userId, userRole, sequence);
+        }
         
         // Increment view count
         Announcement announcement = announcements.get(announcementId);
@@ -146,38 +169,41 @@ public class AnnouncementServiceImpl implements AnnouncementService {
 
     @Override
     public Long getUnreadCount(String userId, Role userRole) {
-        Set<String> readAnnouncements = userReadAnnouncements.getOrDefault(userId, new HashSet<>());
-        
-        return getAnnouncementsForRole(userRole).stream()
-                .filter(a -> !readAnnouncements.contains(a.getId()))
-                .count();
+        return readTracker.countUnread(userId, feedIndex.liveSequences(userRole));
     }
 
     @Override
     public List<Announcement> searchAnnouncements(String searchTerm, Role userRole) {
-        String lowerSearchTerm = searchTerm.toLowerCase();
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return getAnnouncementsForRole(userRole);
+        }
         
-        return getAnnouncementsForRole(userRole).stream()
-                .filter(a -> 
-                    a.getTitle().toLowerCase().contains(lowerSearchTerm) ||
-                    a.getContent().toLowerCase().contains(lowerSearchTerm) ||
-                    a.getAuthorName().toLowerCase().contains(lowerSearchTerm)
-                )
-                .collect(Collectors.toList());
+        // Ranked ids of matching announcements in the role's feed
+        List<Announcement> results = new ArrayList<>();
+        for (String id : searchIndex.search(searchTerm, userRole)) {
+            Announcement announcement = announcements.get(id);
+            if (announcement != null) {
+                results.add(announcement);
+            }
+        }
+        return results;
     }
 
     @Override
     public void archiveExpiredAnnouncements() {
         announcements.values().stream()
                 .filter(Announcement::isExpired)
-                .forEach(a -> a.setIsActive(false));
+                .forEach(a -> {
+                    a.setIsActive(false);
+                    feedIndex.remove(a.getId());
+                });
     }
 
     @Override
     public AnnouncementStats getAnnouncementStats() {
         long total = announcements.size();
         long active = announcements.values().stream()
-                .filter(a -> a.getIsActive() && !a.isExpired())
+                .filter(a -> a.getIsActive())
                 .count();
         long pinned = announcements.values().stream()
                 .filter(a -> a.getIsActive() && a.getIsPinned())
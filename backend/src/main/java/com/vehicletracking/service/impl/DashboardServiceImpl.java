@@ -1,209 +1,235 @@
 package com.vehicletracking.service.impl;
 
+import com.google.firebase.database.FirebaseDatabase;
 import com.vehicletracking.dto.*;
 import com.vehicletracking.model.Role;
+import com.vehicletracking.model.Trip;
+import com.vehicletracking.model.TripStatus;
+import com.vehicletracking.model.VehicleStatus;
+import com.vehicletracking.service.DashboardAggregator;
+import com.vehicletracking.service.DashboardAggregator.ActivityEntry;
+import com.vehicletracking.service.DashboardAggregator.DriverTotals;
 import com.vehicletracking.service.DashboardService;
+import com.vehicletracking.service.OdometerService;
+import com.vehicletracking.service.TripRollupStore;
+import com.vehicletracking.service.TripRollupStore.Dimension;
+import com.vehicletracking.service.TripRollupStore.Rollup;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
+    private static final int POPULAR_ROUTES_LIMIT = 5;
+    private static final int REGISTRATION_WINDOW_DAYS = 30;
+
+    @Autowired
+    private DashboardAggregator aggregator;
+
+    @Autowired
+    private TripRollupStore rollupStore;
+
+    @Autowired
+    private OdometerService odometerService;
+
+    @Autowired
+    private FirebaseDatabase firebaseDatabase;
+
     @Override
     public AdminDashboardStats getAdminDashboardStats() {
         AdminDashboardStats stats = new AdminDashboardStats();
-        
-        // Mock data - in production, fetch from database
-        stats.setTotalUsers(150L);
-        stats.setTotalVehicles(25L);
-        stats.setActiveTrips(8L);
-        stats.setCompletedTripsToday(12L);
-        stats.setTotalDrivers(15L);
-        stats.setAvailableVehicles(17L);
-        stats.setTotalDistanceTraveled(2500.0);
-        
-        // Users by role
-        Map<String, Long> usersByRole = new HashMap<>();
-        usersByRole.put("ADMIN", 5L);
-        usersByRole.put("DRIVER", 15L);
-        usersByRole.put("TEACHER", 50L);
-        usersByRole.put("STUDENT", 80L);
-        stats.setUsersByRole(usersByRole);
-        
-        // Vehicles by status
-        Map<String, Long> vehiclesByStatus = new HashMap<>();
-        vehiclesByStatus.put("ACTIVE", 17L);
-        vehiclesByStatus.put("IN_TRANSIT", 8L);
-        vehiclesByStatus.put("MAINTENANCE", 0L);
-        stats.setVehiclesByStatus(vehiclesByStatus);
-        
-        // Recent activities
+
+        long activeVehicles = aggregator.getVehicleCount(VehicleStatus.ACTIVE);
+        long vehiclesOnTrip = aggregator.getVehiclesOnTrip();
+        Rollup today = rollupStore.query(Dimension.FLEET, null, LocalDate.now(), LocalDate.now());
+
+        stats.setTotalUsers(aggregator.getTotalUsers());
+        stats.setTotalVehicles(aggregator.getTotalVehicles());
+        stats.setActiveVehicles(activeVehicles);
+        stats.setTotalDrivers(aggregator.getUserCount(Role.DRIVER));
+        stats.setActiveDrivers(vehiclesOnTrip);
+        stats.setTotalTrips(aggregator.getTotalTrips());
+        stats.setActiveTrips(vehiclesOnTrip);
+        stats.setCompletedTripsToday(today.getTripCount(TripStatus.COMPLETED));
+        stats.setAvailableVehicles(Math.max(0, activeVehicles - vehiclesOnTrip));
+        stats.setTotalDistanceTraveled(odometerService.getFleetDistanceKm());
+        stats.setUsersByRole(aggregator.getUsersByRole());
+        stats.setVehiclesByStatus(aggregator.getVehiclesByStatus());
+
         List<RecentActivity> activities = new ArrayList<>();
-        activities.add(new RecentActivity("Trip Completed", "John Driver", "5 minutes ago", "Route A completed successfully"));
-        activities.add(new RecentActivity("New User Registration", "Jane Student", "10 minutes ago", "New student registered"));
-        activities.add(new RecentActivity("Vehicle Maintenance", "Admin", "1 hour ago", "Vehicle #15 maintenance scheduled"));
+        for (ActivityEntry entry : aggregator.getRecentActivities()) {
+            activities.add(new RecentActivity(entry.getAction(), entry.getUser(),
+                formatAge(entry.getAge()), entry.getDescription()));
+        }
         stats.setRecentActivities(activities);
-        
+
         return stats;
     }
 
     @Override
     public DriverDashboardStats getDriverDashboardStats(String driverId) {
         DriverDashboardStats stats = new DriverDashboardStats();
-        
-        // Mock data - in production, fetch from database based on driverId
-        stats.setTotalTripsCompleted(45L);
-        stats.setTripsToday(3);
-        stats.setTotalDistanceDriven(1250.0);
-        stats.setAverageTripDuration(25.5);
-        stats.setCurrentVehicle("Bus #7");
-        stats.setNextScheduledTrip("Route B - 2:30 PM");
-        
-        // Recent trips
+        DriverTotals totals = aggregator.getDriverTotals(driverId);
+
+        stats.setTotalTripsCompleted(totals.getCompletedTrips());
+        stats.setTripsToday(totals.getTripsToday());
+        stats.setTotalDistanceDriven(totals.getDistanceKm());
+        stats.setAverageTripDuration(totals.getAverageDurationMinutes());
+        stats.setCurrentVehicle(aggregator.getVehicleNumberByDriver(driverId));
+
         List<RecentTrip> recentTrips = new ArrayList<>();
-        RecentTrip trip1 = new RecentTrip();
-        trip1.setTripId("TRIP001");
-        trip1.setRoute("Campus A to Campus B");
-        trip1.setDate("2024-01-15");
-        trip1.setDuration("25 minutes");
-        trip1.setStatus("COMPLETED");
-        recentTrips.add(trip1);
-        
-        RecentTrip trip2 = new RecentTrip();
-        trip2.setTripId("TRIP002");
-        trip2.setRoute("Campus B to Downtown");
-        trip2.setDate("2024-01-15");
-        trip2.setDuration("30 minutes");
-        trip2.setStatus("COMPLETED");
-        recentTrips.add(trip2);
-        
+        for (Trip trip : totals.getRecentTrips()) {
+            RecentTrip recentTrip = new RecentTrip();
+            recentTrip.setTripId(trip.getId());
+            recentTrip.setRoute(trip.getRouteName());
+            recentTrip.setDate(trip.getActualStartTime() != null
+                ? trip.getActualStartTime().toLocalDate().toString() : null);
+            recentTrip.setDuration(trip.getActualDuration() != null
+                ? trip.getActualDuration().longValue() + " minutes" : null);
+            recentTrip.setStatus(trip.getStatus().name());
+            recentTrips.add(recentTrip);
+        }
         stats.setRecentTrips(recentTrips);
-        
-        // Performance metrics
+
+        // Ratings and safety scores are not collected yet
         PerformanceMetrics performance = new PerformanceMetrics();
-        performance.setOnTimePercentage(94.5);
-        performance.setAverageRating(4.7);
-        performance.setTotalPassengers(280L);
-        performance.setSafetyScore(98.2);
+        performance.setOnTimePercentage(totals.getOnTimePercentage());
+        performance.setTotalPassengers(totals.getPassengers());
         stats.setPerformanceMetrics(performance);
-        
+
         return stats;
     }
 
     @Override
     public VehicleUsageStats getVehicleUsageStats(String vehicleId, LocalDate startDate, LocalDate endDate) {
         VehicleUsageStats stats = new VehicleUsageStats();
-        
-        // Mock data - in production, calculate from actual data
+        Rollup totals = rollupStore.query(Dimension.VEHICLE, vehicleId, startDate, endDate);
+
         stats.setVehicleId(vehicleId);
-        stats.setVehicleName("University Bus #" + vehicleId);
-        stats.setTotalTrips(28);
-        stats.setTotalDistance(850.0);
-        stats.setTotalFuelConsumption(120.5);
-        stats.setTotalPassengers(420L);
-        stats.setUtilizationRate(76.5);
-        
-        // Daily trips map
-        Map<LocalDate, Long> dailyTrips = new HashMap<>();
-        for (int i = 0; i < 7; i++) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            dailyTrips.put(date, (long) (Math.random() * 10 + 1));
-        }
-        stats.setDailyTrips(dailyTrips);
-        
+        stats.setVehicleName(aggregator.getVehicleNumber(vehicleId));
+        stats.setTotalTrips((int) totals.getTripCount());
+        stats.setTotalDistance(totals.getDistanceKm());
+        stats.setTotalPassengers(totals.getPassengers());
+
+        // Share of the range spent on completed trips
+        long rangeMinutes = (ChronoUnit.DAYS.between(startDate, endDate) + 1) * 24 * 60;
+        stats.setUtilizationRate(rangeMinutes > 0 ? totals.getDurationMinutes() * 100.0 / rangeMinutes : 0.0);
+
+        stats.setDailyTrips(rollupStore.tripsPerDay(Dimension.VEHICLE, vehicleId, startDate, endDate));
+
         return stats;
     }
 
     @Override
     public SystemOverview getSystemOverview() {
         SystemOverview overview = new SystemOverview();
-        
-        overview.setSystemStatus("HEALTHY");
-        overview.setActiveConnections(142L);
-        overview.setServerUptime(99.8);
-        overview.setTotalDataProcessed(15000L);
-        
+
+        String databaseStatus = firebaseDatabase != null ? "HEALTHY" : "UNAVAILABLE";
+
+        overview.setSystemStatus(databaseStatus.equals("HEALTHY") ? "HEALTHY" : "DEGRADED");
+        overview.setActiveConnections(aggregator.getActiveConnections());
+        // Hours since startup
+        overview.setServerUptime(aggregator.getUptimeMillis() / 3_600_000.0);
+        overview.setTotalDataProcessed(aggregator.getLocationFixes());
+
         Map<String, Object> systemHealth = new HashMap<>();
-        systemHealth.put("database", "HEALTHY");
+        systemHealth.put("database", databaseStatus);
         systemHealth.put("api", "HEALTHY");
         systemHealth.put("messaging", "HEALTHY");
-        systemHealth.put("storage", "HEALTHY");
         overview.setSystemHealth(systemHealth);
-        
+
         return overview;
     }
 
     @Override
     public FleetPerformanceMetrics getFleetPerformanceMetrics() {
         FleetPerformanceMetrics metrics = new FleetPerformanceMetrics();
-        
-        metrics.setAverageSpeed(35.2);
-        metrics.setFuelEfficiency(8.5);
-        metrics.setOnTimePerformance(92.3);
-        metrics.setMaintenanceAlerts(2L);
-        
+
+        metrics.setAverageSpeed(aggregator.getAverageSpeed());
+        metrics.setMaintenanceAlerts(aggregator.getVehicleCount(VehicleStatus.MAINTENANCE));
+
+        metrics.setOnTimePerformance(rollupStore.lifetime(Dimension.FLEET, null).getOnTimePercentage());
+
         Map<String, Double> performanceByVehicle = new HashMap<>();
-        performanceByVehicle.put("Bus #1", 94.5);
-        performanceByVehicle.put("Bus #2", 91.2);
-        performanceByVehicle.put("Bus #3", 96.8);
-        performanceByVehicle.put("Bus #4", 89.7);
-        performanceByVehicle.put("Bus #5", 93.1);
+        rollupStore.lifetimeByKey(Dimension.VEHICLE).forEach((vehicleId, totals) -> {
+            Double onTime = totals.getOnTimePercentage();
+            if (onTime != null) {
+                String vehicleName = aggregator.getVehicleNumber(vehicleId);
+                performanceByVehicle.put(vehicleName != null ? vehicleName : vehicleId, onTime);
+            }
+        });
         metrics.setPerformanceByVehicle(performanceByVehicle);
-        
+
         return metrics;
     }
 
     @Override
     public UserActivityStats getUserActivityStats(Role role) {
         UserActivityStats stats = new UserActivityStats();
-        
-        stats.setActiveUsers(85L);
-        stats.setNewRegistrations(12);
-        
-        Map<String, Long> activityByHour = new HashMap<>();
-        for (int i = 6; i <= 22; i++) {
-            activityByHour.put(String.valueOf(i), (long) (Math.random() * 20 + 5));
-        }
-        stats.setActivityByHour(activityByHour);
-        
-        List<String> mostActiveUsers = Arrays.asList("john.doe", "jane.smith", "mike.wilson", "sarah.johnson", "david.brown");
-        stats.setMostActiveUsers(mostActiveUsers);
-        
+
+        stats.setActiveUsers(aggregator.getActiveUsersToday(role));
+        stats.setNewRegistrations(aggregator.getRegistrationsSince(role,
+            LocalDate.now().minusDays(REGISTRATION_WINDOW_DAYS)));
+        stats.setActivityByHour(aggregator.getActivityByHourToday(role));
+        stats.setMostActiveUsers(aggregator.getRecentlyActiveUsers(role));
+
         return stats;
     }
 
     @Override
     public TripAnalytics getTripAnalytics(LocalDate startDate, LocalDate endDate) {
+        return getTripAnalytics(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), null);
+    }
+
+    @Override
+    public TripAnalytics getTripAnalytics(LocalDateTime from, LocalDateTime to, String university) {
         TripAnalytics analytics = new TripAnalytics();
-        
-        analytics.setTotalTrips(156);
-        analytics.setAverageDistance(12.5);
-        analytics.setAverageDuration(22.3);
-        
+        Dimension dimension = university != null ? Dimension.UNIVERSITY : Dimension.FLEET;
+        // Partial days of the range are read from the hourly buckets
+        Rollup totals = rollupStore.query(dimension, university, from, to);
+        long completed = totals.getTripCount(TripStatus.COMPLETED);
+
+        analytics.setTotalTrips((int) totals.getTripCount());
+        analytics.setAverageDistance(completed > 0 ? totals.getDistanceKm() / completed : 0.0);
+        analytics.setAverageDuration(completed > 0 ? totals.getDurationMinutes() / completed : 0.0);
+
         Map<String, Long> tripsByStatus = new HashMap<>();
-        tripsByStatus.put("COMPLETED", 145L);
-        tripsByStatus.put("CANCELLED", 8L);
-        tripsByStatus.put("IN_PROGRESS", 3L);
-        analytics.setTripsByStatus(tripsByStatus);
-        
-        Map<LocalDate, Long> tripsOverTime = new HashMap<>();
-        for (int i = 0; i < 30; i++) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            tripsOverTime.put(date, (long) (Math.random() * 15 + 5));
+        for (TripStatus status : TripStatus.values()) {
+            long count = totals.getTripCount(status);
+            if (count > 0) {
+                tripsByStatus.put(status.name(), count);
+            }
         }
-        analytics.setTripsOverTime(tripsOverTime);
-        
-        List<String> popularRoutes = Arrays.asList(
-            "Campus A to Campus B",
-            "Downtown to University",
-            "Dormitory to Main Campus",
-            "Library to Sports Complex",
-            "Medical Center to Campus"
-        );
-        analytics.setPopularRoutes(popularRoutes);
-        
+        analytics.setTripsByStatus(tripsByStatus);
+
+        LocalDate startDate = from.toLocalDate();
+        LocalDate endDate = to.minusNanos(1).toLocalDate();
+        analytics.setTripsOverTime(rollupStore.tripsPerDay(dimension, university, startDate, endDate));
+        analytics.setPopularRoutes(rollupStore.topKeys(Dimension.ROUTE, startDate, endDate, POPULAR_ROUTES_LIMIT));
+        analytics.setTripsByUniversity(rollupStore.tripsByKey(Dimension.UNIVERSITY, startDate, endDate));
+
         return analytics;
     }
+
+    private static String formatAge(Duration age) {
+        long minutes = age.toMinutes();
+        if (minutes < 1) {
+            return "just now";
+        }
+        if (minutes < 60) {
+            return minutes + (minutes == 1 ? " minute ago" : " minutes ago");
+        }
+        long hours = age.toHours();
+        if (hours < 24) {
+            return hours + (hours == 1 ? " hour ago" : " hours ago");
+        }
+        long days = age.toDays();
+        return days + (days == 1 ? " day ago" : " days ago");
+    }
 }
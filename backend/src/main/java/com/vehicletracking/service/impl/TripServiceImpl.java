@@ -0,0 +1,113 @@
+package com.vehicletracking.service.impl;
+
+import com.vehicletracking.event.TripStatusChangedEvent;
+import com.vehicletracking.exception.BusinessLogicException;
+import com.vehicletracking.model.Trip;
+import com.vehicletracking.model.TripStatus;
+import com.vehicletracking.service.OdometerService;
+import com.vehicletracking.service.TripService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+public class TripServiceImpl implements TripService {
+
+    @Autowired
+    private OdometerService odometerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // In-memory storage (in production, use a database)
+    private final Map<String, Trip> trips = new ConcurrentHashMap<>();
+    private final Map<String, String> activeTripByVehicle = new ConcurrentHashMap<>();
+
+    @Override
+    public Trip startTrip(Trip trip) {
+        String id = UUID.randomUUID().toString();
+        
+        if (activeTripByVehicle.putIfAbsent(trip.getVehicleId(), id) != null) {
+            throw new BusinessLogicException("Vehicle already has a trip in progress: " + trip.getVehicleId());
+        }
+        
+        trip.setId(id);
+        trip.setCreatedAt(LocalDateTime.now());
+        TripStatus previousStatus = trip.getStatus();
+        trip.startTrip();
+        trips.put(id, trip);
+        
+        odometerService.startTrip(trip.getVehicleId(), id);
+        eventPublisher.publishEvent(new TripStatusChangedEvent(trip, previousStatus));
+        return trip;
+    }
+
+    @Override
+    public Trip completeTrip(String tripId) {
+        Trip trip = getTrip(tripId);
+        
+        // The trip is the lock of its own transitions, so only one concurrent end wins
+        synchronized (trip) {
+            if (!trip.isInProgress()) {
+                throw new BusinessLogicException("Trip is not in progress: " + tripId);
+            }
+            trip.setActualDistance(odometerService.endTrip(trip.getVehicleId(), tripId));
+            trip.completeTrip();
+            activeTripByVehicle.remove(trip.getVehicleId(), tripId);
+        }
+        eventPublisher.publishEvent(new TripStatusChangedEvent(trip, TripStatus.IN_PROGRESS));
+        return trip;
+    }
+
+    @Override
+    public Trip cancelTrip(String tripId) {
+        Trip trip = getTrip(tripId);
+        
+        TripStatus previousStatus;
+        synchronized (trip) {
+            if (trip.isCompleted() || trip.isCancelled()) {
+                throw new BusinessLogicException("Trip has already ended: " + tripId);
+            }
+            previousStatus = trip.getStatus();
+            if (trip.isInProgress()) {
+                trip.setActualDistance(odometerService.endTrip(trip.getVehicleId(), tripId));
+                activeTripByVehicle.remove(trip.getVehicleId(), tripId);
+            }
+            trip.cancelTrip();
+        }
+        eventPublisher.publishEvent(new TripStatusChangedEvent(trip, previousStatus));
+        return trip;
+    }
+
+    @Override
+    public Optional<Trip> getTripById(String tripId) {
+        return Optional.ofNullable(trips.get(tripId));
+    }
+
+    @Override
+    public Optional<Trip> getActiveTripByVehicle(String vehicleId) {
+        String tripId = activeTripByVehicle.get(vehicleId);
+        return tripId != null ? Optional.ofNullable(trips.get(tripId)) : Optional.empty();
+    }
+
+    @Override
+    public List<Trip> getTripsByDriver(String driverId) {
+        return trips.values().stream()
+                .filter(t -> driverId.equals(t.getDriverId()))
+                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    private Trip getTrip(String tripId) {
+        Trip trip = trips.get(tripId);
+        if (trip == null) {
+            throw new BusinessLogicException("Trip not found with id: " + tripId);
+        }
+        return trip;
+    }
+}
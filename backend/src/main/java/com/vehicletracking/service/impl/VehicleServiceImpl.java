@@ -1,8 +1,11 @@
 package com.vehicletracking.service.impl;
 
+import com.vehicletracking.config.CacheConfig;
 import com.vehicletracking.dto.VehicleDto;
 import com.vehicletracking.dto.VehicleResponseDto;
-import com.vehicletracking.dto.LocationUpdateDto;
+import com.vehicletracking.dto.VehicleMetadataDto;
+import com.vehicletracking.dto.VehicleTelemetryDto;
+import com.vehicletracking.event.VehicleChangedEvent;
 import com.vehicletracking.exception.VehicleNotFoundException;
 import com.vehicletracking.exception.UserNotFoundException;
 import com.vehicletracking.exception.DriverAssignmentException;
@@ -14,11 +17,17 @@ import com.vehicletracking.model.VehicleStatus;
 import com.vehicletracking.model.Role;
 import com.vehicletracking.repository.VehicleRepository;
 import com.vehicletracking.repository.UserRepository;
+import com.vehicletracking.service.LiveLocationStore;
+import com.vehicletracking.service.LiveLocationStore.LiveFix;
 import com.vehicletracking.service.VehicleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -32,6 +41,12 @@ public class VehicleServiceImpl implements VehicleService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private LiveLocationStore liveLocationStore;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     public VehicleResponseDto createVehicle(VehicleDto vehicleDto) {
         if (vehicleRepository.existsByVehicleNumber(vehicleDto.getVehicleNumber())) {
@@ -59,6 +74,7 @@ public class VehicleServiceImpl implements VehicleService {
         }
         
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(savedVehicle));
         return mapEntityToResponseDto(savedVehicle);
     }
     
@@ -98,6 +114,7 @@ public class VehicleServiceImpl implements VehicleService {
         }
         
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(savedVehicle));
         return mapEntityToResponseDto(savedVehicle);
     }
     
@@ -107,10 +124,12 @@ public class VehicleServiceImpl implements VehicleService {
             .orElseThrow(() -> new VehicleNotFoundException(id));
         
         vehicle.setIsActive(false);
-        vehicleRepository.save(vehicle);
+        Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(savedVehicle));
     }
     
     @Override
+    @Cacheable(CacheConfig.VEHICLE_BY_ID)
     public Optional<VehicleResponseDto> getVehicleById(String id) {
         return vehicleRepository.findById(id)
             .filter(Vehicle::getIsActive)
@@ -124,7 +143,10 @@ public class VehicleServiceImpl implements VehicleService {
             .map(this::mapEntityToResponseDto);
     }
     
+    // Lists served with fleet ETags are keyed by version so a list loaded
+    // before a change is never served after it
     @Override
+    @Cacheable(value = CacheConfig.ALL_VEHICLES, key = "@fleetVersionService.getFleetVersion()")
     public List<VehicleResponseDto> getAllVehicles() {
         return vehicleRepository.findByIsActive(true)
             .stream()
@@ -133,6 +155,7 @@ public class VehicleServiceImpl implements VehicleService {
     }
     
     @Override
+    @Cacheable(CacheConfig.VEHICLES_BY_UNIVERSITY)
     public List<VehicleResponseDto> getVehiclesByUniversity(String university) {
         return vehicleRepository.findByUniversity(university)
             .stream()
@@ -142,6 +165,7 @@ public class VehicleServiceImpl implements VehicleService {
     }
     
     @Override
+    @Cacheable(CacheConfig.VEHICLES_BY_TYPE)
     public List<VehicleResponseDto> getVehiclesByType(VehicleType vehicleType) {
         return vehicleRepository.findByVehicleType(vehicleType)
             .stream()
@@ -151,6 +175,7 @@ public class VehicleServiceImpl implements VehicleService {
     }
     
     @Override
+    @Cacheable(CacheConfig.VEHICLES_BY_STATUS)
     public List<VehicleResponseDto> getVehiclesByStatus(VehicleStatus status) {
         return vehicleRepository.findByStatus(status)
             .stream()
@@ -160,6 +185,7 @@ public class VehicleServiceImpl implements VehicleService {
     }
     
     @Override
+    @Cacheable(CacheConfig.VEHICLES_BY_UNIVERSITY_AND_TYPE)
     public List<VehicleResponseDto> getVehiclesByUniversityAndType(String university, VehicleType vehicleType) {
         return vehicleRepository.findByUniversityAndVehicleType(university, vehicleType)
             .stream()
@@ -196,6 +222,7 @@ public class VehicleServiceImpl implements VehicleService {
         
         vehicle.setDriver(driver);
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(savedVehicle));
         return mapEntityToResponseDto(savedVehicle);
     }
     
@@ -206,10 +233,12 @@ public class VehicleServiceImpl implements VehicleService {
         
         vehicle.setDriver(null);
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(savedVehicle));
         return mapEntityToResponseDto(savedVehicle);
     }
     
     @Override
+    @Cacheable(CacheConfig.VEHICLE_BY_DRIVER)
     public Optional<VehicleResponseDto> getVehicleByDriverId(String driverId) {
         return vehicleRepository.findByDriverId(driverId)
             .stream()
@@ -219,6 +248,7 @@ public class VehicleServiceImpl implements VehicleService {
     }
     
     @Override
+    @Cacheable(value = CacheConfig.VEHICLES_WITH_LOCATION, key = "@fleetVersionService.getFleetVersion()")
     public List<VehicleResponseDto> getVehiclesWithLocation() {
         return vehicleRepository.findVehiclesWithLocation()
             .stream()
@@ -227,6 +257,8 @@ public class VehicleServiceImpl implements VehicleService {
     }
     
     @Override
+    @Cacheable(value = CacheConfig.VEHICLES_WITH_LOCATION_BY_UNIVERSITY,
+               key = "#university + ':' + @fleetVersionService.getFleetVersion()")
     public List<VehicleResponseDto> getActiveVehiclesWithLocationByUniversity(String university) {
         return vehicleRepository.findActiveVehiclesWithLocationByUniversity(university)
             .stream()
@@ -235,28 +267,84 @@ public class VehicleServiceImpl implements VehicleService {
     }
     
     @Override
-    public VehicleResponseDto updateVehicleLocation(String vehicleId, LocationUpdateDto locationUpdate) {
+    public VehicleTelemetryDto saveLiveLocation(String vehicleId) {
         Vehicle vehicle = vehicleRepository.findById(vehicleId)
-            .orElseThrow(() -> new RuntimeException("Vehicle not found with id: " + vehicleId));
-        
-        vehicle.setCurrentLatitude(locationUpdate.getLatitude());
-        vehicle.setCurrentLongitude(locationUpdate.getLongitude());
-        vehicle.setLastLocationUpdate(LocalDateTime.now());
+            .orElseThrow(() -> new VehicleNotFoundException(vehicleId));
         
-        if (locationUpdate.getSpeed() != null) {
-            vehicle.setCurrentSpeed(locationUpdate.getSpeed());
+        if (liveLocationStore.get(vehicleId) == null) {
+            return mapEntityToTelemetryDto(vehicle);
         }
-        
-        if (locationUpdate.getDirection() != null) {
-            vehicle.setDirection(locationUpdate.getDirection());
-        }
-        
-        if (locationUpdate.getFuelLevel() != null) {
-            vehicle.setFuelLevel(locationUpdate.getFuelLevel());
+        return mapEntityToTelemetryDto(saveLatestFix(vehicle));
+    }
+    
+    /**
+     * Save the vehicle's latest live fix. Saves of concurrent fixes can land in any order,
+     * so a writer that finds a newer fix after its save writes again until the row holds the latest.
+     */
+    private Vehicle saveLatestFix(Vehicle vehicle) {
+        while (true) {
+            LiveFix latest = liveLocationStore.get(vehicle.getId());
+            vehicle.setCurrentLatitude(latest.getLatitude());
+            vehicle.setCurrentLongitude(latest.getLongitude());
+            vehicle.setLastLocationUpdate(toLocalDateTime(latest.getFixTimeMillis()));
+            
+            if (latest.getSpeed() != null) {
+                vehicle.setCurrentSpeed(latest.getSpeed());
+            }
+            
+            if (latest.getDirection() != null) {
+                vehicle.setDirection(latest.getDirection());
+            }
+            
+            if (latest.getFuelLevel() != null) {
+                vehicle.setFuelLevel(latest.getFuelLevel());
+            }
+            
+            Vehicle savedVehicle = vehicleRepository.save(vehicle);
+            if (liveLocationStore.get(vehicle.getId()) == latest) {
+                return savedVehicle;
+            }
+            vehicle = savedVehicle;
         }
-        
-        Vehicle savedVehicle = vehicleRepository.save(vehicle);
-        return mapEntityToResponseDto(savedVehicle);
+    }
+    
+    @Override
+    @Cacheable(value = CacheConfig.FLEET_TELEMETRY, key = "@fleetVersionService.getFleetVersion()")
+    public List<VehicleTelemetryDto> getFleetTelemetry() {
+        return vehicleRepository.findVehiclesWithLocation()
+            .stream()
+            .map(this::mapEntityToTelemetryDto)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    @Cacheable(value = CacheConfig.FLEET_TELEMETRY_BY_UNIVERSITY,
+               key = "#university + ':' + @fleetVersionService.getFleetVersion()")
+    public List<VehicleTelemetryDto> getFleetTelemetryByUniversity(String university) {
+        return vehicleRepository.findActiveVehiclesWithLocationByUniversity(university)
+            .stream()
+            .map(this::mapEntityToTelemetryDto)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    @Cacheable(value = CacheConfig.FLEET_METADATA, key = "@fleetVersionService.getMetadataVersion()")
+    public List<VehicleMetadataDto> getFleetMetadata() {
+        return vehicleRepository.findByIsActive(true)
+            .stream()
+            .map(this::mapEntityToMetadataDto)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    @Cacheable(value = CacheConfig.FLEET_METADATA_BY_UNIVERSITY,
+               key = "#university + ':' + @fleetVersionService.getMetadataVersion()")
+    public List<VehicleMetadataDto> getFleetMetadataByUniversity(String university) {
+        return vehicleRepository.findByUniversity(university)
+            .stream()
+            .filter(Vehicle::getIsActive)
+            .map(this::mapEntityToMetadataDto)
+            .collect(Collectors.toList());
     }
     
     @Override
@@ -266,10 +354,12 @@ public class VehicleServiceImpl implements VehicleService {
         
         vehicle.setStatus(status);
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(savedVehicle));
         return mapEntityToResponseDto(savedVehicle);
     }
     
     @Override
+    @Cacheable(CacheConfig.ACTIVE_VEHICLES)
     public List<VehicleResponseDto> getActiveVehicles() {
         return vehicleRepository.findByIsActive(true)
             .stream()
@@ -347,4 +437,46 @@ public class VehicleServiceImpl implements VehicleService {
         
         return dto;
     }
+    
+    private VehicleTelemetryDto mapEntityToTelemetryDto(Vehicle entity) {
+        Long timestamp = entity.getLastLocationUpdate() != null ? toEpochMillis(entity.getLastLocationUpdate()) : null;
+        
+        return new VehicleTelemetryDto(entity.getId(), entity.getCurrentLatitude(), entity.getCurrentLongitude(),
+            entity.getCurrentSpeed(), entity.getDirection(), timestamp, entity.getStatus());
+    }
+    
+    private VehicleMetadataDto mapEntityToMetadataDto(Vehicle entity) {
+        VehicleMetadataDto dto = new VehicleMetadataDto();
+        dto.setId(entity.getId());
+        dto.setVehicleNumber(entity.getVehicleNumber());
+        dto.setModel(entity.getModel());
+        dto.setBrand(entity.getBrand());
+        dto.setCapacity(entity.getCapacity());
+        dto.setVehicleType(entity.getVehicleType());
+        dto.setStatus(entity.getStatus());
+        dto.setUniversity(entity.getUniversity());
+        
+        if (entity.getDriver() != null) {
+            dto.setDriverId(entity.getDriver().getId());
+            dto.setDriverName(entity.getDriver().getFullName());
+            dto.setDriverPhone(entity.getDriver().getPhoneNumber());
+        }
+        
+        dto.setRouteName(entity.getRouteName());
+        dto.setRouteDescription(entity.getRouteDescription());
+        dto.setLastMaintenance(entity.getLastMaintenanceDate());
+        dto.setNextMaintenance(entity.getNextMaintenanceDate());
+        dto.setIsActive(entity.getIsActive());
+        dto.setUpdatedAt(entity.getUpdatedAt());
+        
+        return dto;
+    }
+    
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
 } 
\ No newline at end of file
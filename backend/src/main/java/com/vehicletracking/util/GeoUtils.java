@@ -0,0 +1,24 @@
+package com.vehicletracking.util;
+
+public final class GeoUtils {
+    
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    
+    /**
+     * Great-circle distance between two coordinates in kilometres (haversine formula)
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+    
+    // Private constructor to prevent instantiation
+    private GeoUtils() {
+        throw new IllegalStateException("Utility class");
+    }
+}
@@ -0,0 +1,164 @@
+package com.vehicletracking.util;
+
+import com.vehicletracking.dto.VehicleTelemetryDto;
+import com.vehicletracking.model.VehicleStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-layout binary encoding of vehicle telemetry, big-endian:
+ * <pre>
+ * header:  magic 'V' 'T' (2) | format version (1) | record count (4)
+ * record:  id (2-byte length + modified UTF-8) | flags (1)
+ *          | latitude, longitude in microdegrees (4 + 4) | speed in 0.1 km/h (2)
+ *          | heading index N..NW (1) | status ordinal (1) | timestamp epoch millis (8)
+ * </pre>
+ * Absent values are marked in the flags byte; their fields are still written as zero.
+ */
+public final class TelemetryBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/x-vehicle-telemetry";
+
+    private static final byte MAGIC_0 = 'V';
+    private static final byte MAGIC_1 = 'T';
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int HAS_POSITION = 1;
+    private static final int HAS_SPEED = 1 << 1;
+    private static final int HAS_HEADING = 1 << 2;
+    private static final int HAS_STATUS = 1 << 3;
+    private static final int HAS_TIMESTAMP = 1 << 4;
+
+    private static final double MICRODEGREES = 1_000_000.0;
+    private static final double SPEED_SCALE = 10.0;
+    private static final String[] HEADINGS = {"N", "NE", "E", "SE", "S", "SW", "W", "NW"};
+    private static final VehicleStatus[] STATUSES = VehicleStatus.values();
+
+    public static byte[] encode(List<VehicleTelemetryDto> vehicles) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(7 + vehicles.size() * 48);
+        try {
+            encode(vehicles, out);
+        } catch (IOException e) {
+            // Not thrown by an in-memory stream
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static void encode(List<VehicleTelemetryDto> vehicles, OutputStream target) throws IOException {
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeByte(MAGIC_0);
+        out.writeByte(MAGIC_1);
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(vehicles.size());
+
+        for (VehicleTelemetryDto vehicle : vehicles) {
+            int heading = headingIndex(vehicle.getHeading());
+            int flags = 0;
+            if (vehicle.getLat() != null && vehicle.getLon() != null) {
+                flags |= HAS_POSITION;
+            }
+            if (vehicle.getSpeed() != null) {
+                flags |= HAS_SPEED;
+            }
+            if (heading >= 0) {
+                flags |= HAS_HEADING;
+            }
+            if (vehicle.getStatus() != null) {
+                flags |= HAS_STATUS;
+            }
+            if (vehicle.getTs() != null) {
+                flags |= HAS_TIMESTAMP;
+            }
+
+            out.writeUTF(vehicle.getId() != null ? vehicle.getId() : "");
+            out.writeByte(flags);
+            out.writeInt((flags & HAS_POSITION) != 0 ? (int) Math.round(vehicle.getLat() * MICRODEGREES) : 0);
+            out.writeInt((flags & HAS_POSITION) != 0 ? (int) Math.round(vehicle.getLon() * MICRODEGREES) : 0);
+            out.writeShort((flags & HAS_SPEED) != 0
+                ? (int) Math.min(0xFFFF, Math.max(0, Math.round(vehicle.getSpeed() * SPEED_SCALE))) : 0);
+            out.writeByte(Math.max(heading, 0));
+            out.writeByte((flags & HAS_STATUS) != 0 ? vehicle.getStatus().ordinal() : 0);
+            out.writeLong((flags & HAS_TIMESTAMP) != 0 ? vehicle.getTs() : 0L);
+        }
+        out.flush();
+    }
+
+    public static List<VehicleTelemetryDto> decode(byte[] data) throws IOException {
+        return decode(new ByteArrayInputStream(data));
+    }
+
+    public static List<VehicleTelemetryDto> decode(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(source);
+        if (in.readByte() != MAGIC_0 || in.readByte() != MAGIC_1) {
+            throw new IOException("Not a vehicle telemetry payload");
+        }
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported vehicle telemetry format version: " + version);
+        }
+
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid vehicle telemetry record count: " + count);
+        }
+
+        List<VehicleTelemetryDto> vehicles = new ArrayList<>(Math.min(count, 10_000));
+        for (int i = 0; i < count; i++) {
+            String id = in.readUTF();
+            int flags = in.readUnsignedByte();
+            int lat = in.readInt();
+            int lon = in.readInt();
+            int speed = in.readUnsignedShort();
+            int heading = in.readUnsignedByte();
+            int status = in.readUnsignedByte();
+            long timestamp = in.readLong();
+
+            VehicleTelemetryDto vehicle = new VehicleTelemetryDto();
+            vehicle.setId(id);
+            if ((flags & HAS_POSITION) != 0) {
+                vehicle.setLat(lat / MICRODEGREES);
+                vehicle.setLon(lon / MICRODEGREES);
+            }
+            if ((flags & HAS_SPEED) != 0) {
+                vehicle.setSpeed(speed / SPEED_SCALE);
+            }
+            if ((flags & HAS_HEADING) != 0 && heading < HEADINGS.length) {
+                vehicle.setHeading(HEADINGS[heading]);
+            }
+            if ((flags & HAS_STATUS) != 0 && status < STATUSES.length) {
+                vehicle.setStatus(STATUSES[status]);
+            }
+            if ((flags & HAS_TIMESTAMP) != 0) {
+                vehicle.setTs(timestamp);
+            }
+            vehicles.add(vehicle);
+        }
+        return vehicles;
+    }
+
+    private static int headingIndex(String heading) {
+        if (heading == null) {
+            return -1;
+        }
+        for (int i = 0; i < HEADINGS.length; i++) {
+            if (HEADINGS[i].equalsIgnoreCase(heading)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Private constructor to prevent instantiation
+    private TelemetryBinaryCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+}
@@ -0,0 +1,96 @@
+package com.vehicletracking.websocket;
+
+import com.vehicletracking.model.User;
+import com.vehicletracking.security.CustomUserDetailsService;
+import com.vehicletracking.security.JwtUtils;
+import com.vehicletracking.service.ChatRoomService;
+import com.vehicletracking.service.ChatRoomService.ChatRoom;
+import com.vehicletracking.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * Authenticates STOMP sessions from the token on CONNECT and checks room membership on
+ * SUBSCRIBE, so the broker only ever fans a room's messages out to its members.
+ */
+@Component
+public class ChatChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatChannelInterceptor.class);
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ChatRoomService chatRoomService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand()) && accessor.getUser() == null) {
+            String jwt = parseJwt(accessor);
+            if (jwt != null) {
+                if (!jwtUtils.validateJwtToken(jwt)) {
+                    throw new MessagingException("Invalid token");
+                }
+                UserDetails userDetails = userDetailsService.loadUserByUsername(jwtUtils.getUserNameFromJwtToken(jwt));
+                accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            // Patterns could reach into rooms without naming one, so only exact destinations are allowed
+            if (ChatRoomService.isPattern(destination)) {
+                logger.debug("Refused pattern subscription of {} to {}", accessor.getUser(), destination);
+                throw new MessagingException("Pattern subscriptions are not allowed: " + destination);
+            }
+            if (ChatRoomService.isRoomDestination(destination) && !canJoin(accessor.getUser(), destination)) {
+                logger.debug("Refused subscription of {} to {}", accessor.getUser(), accessor.getDestination());
+                throw new MessagingException("Not a member of " + accessor.getDestination());
+            }
+        }
+        return message;
+    }
+
+    private boolean canJoin(Principal principal, String destination) {
+        // Unknown destinations in the room namespace are refused rather than left open
+        ChatRoom room = ChatRoomService.roomOf(destination);
+        if (principal == null || room == null) {
+            return false;
+        }
+        Optional<User> user = userService.findByUsername(principal.getName());
+        return chatRoomService.canJoin(user.orElse(null), room);
+    }
+
+    private String parseJwt(StompHeaderAccessor accessor) {
+        String headerAuth = accessor.getFirstNativeHeader("Authorization");
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+        return null;
+    }
+}
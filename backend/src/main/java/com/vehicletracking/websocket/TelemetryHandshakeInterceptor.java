@@ -0,0 +1,98 @@
+package com.vehicletracking.websocket;
+
+import com.vehicletracking.dto.VehicleResponseDto;
+import com.vehicletracking.model.Role;
+import com.vehicletracking.security.CustomUserDetailsService;
+import com.vehicletracking.security.JwtUtils;
+import com.vehicletracking.security.UserPrincipal;
+import com.vehicletracking.service.VehicleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Authenticates a telemetry session once at handshake and binds it to the driver's vehicle,
+ * so individual fixes carry no credentials and need no per-message authorization.
+ */
+@Component
+public class TelemetryHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryHandshakeInterceptor.class);
+
+    public static final String DRIVER_ID = "driverId";
+    public static final String VEHICLE_ID = "vehicleId";
+
+    private static final SimpleGrantedAuthority DRIVER = new SimpleGrantedAuthority("ROLE_" + Role.DRIVER.name());
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String jwt = parseJwt(request);
+        if (jwt == null || !jwtUtils.validateJwtToken(jwt)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        UserPrincipal principal;
+        try {
+            principal = (UserPrincipal) userDetailsService.loadUserByUsername(jwtUtils.getUserNameFromJwtToken(jwt));
+        } catch (UsernameNotFoundException e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        if (!principal.getAuthorities().contains(DRIVER)) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        Optional<VehicleResponseDto> vehicle = vehicleService.getVehicleByDriverId(principal.getId());
+        if (vehicle.isEmpty()) {
+            logger.debug("Refused telemetry session of driver {} without a vehicle", principal.getUsername());
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(DRIVER_ID, principal.getId());
+        attributes.put(VEHICLE_ID, vehicle.get().getId());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    // Browsers cannot set headers on a WebSocket handshake, so the token may also come as a query parameter
+    private String parseJwt(ServerHttpRequest request) {
+        String headerAuth = request.getHeaders().getFirst("Authorization");
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        return StringUtils.hasText(token) ? token : null;
+    }
+}
@@ -0,0 +1,165 @@
+package com.vehicletracking.websocket;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicletracking.dto.LocationUpdateDto;
+import com.vehicletracking.dto.MessageResponse;
+import com.vehicletracking.dto.VehicleTelemetryDto;
+import com.vehicletracking.event.VehicleChangedEvent;
+import com.vehicletracking.ingest.LocationIngestPipeline;
+import com.vehicletracking.ingest.LocationIngestPipeline.Admission;
+import com.vehicletracking.model.Vehicle;
+import com.vehicletracking.util.TelemetryBinaryCodec;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Location fixes from a driver's persistent telemetry session. Text frames carry a
+ * LocationUpdateDto or an array of them, binary frames the compact telemetry encoding.
+ * Fixes enter the same ingest pipeline as the REST endpoints; only rejections are answered.
+ */
+@Component
+public class TelemetryWebSocketHandler extends AbstractWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryWebSocketHandler.class);
+
+    private static final TypeReference<List<LocationUpdateDto>> FIX_LIST = new TypeReference<>() {};
+
+    @Autowired
+    private LocationIngestPipeline locationIngestPipeline;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(), session);
+        logger.debug("Telemetry session {} opened for vehicle {}", session.getId(), vehicleId(session));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        String payload = message.getPayload().trim();
+        List<LocationUpdateDto> fixes;
+        try {
+            fixes = payload.startsWith("[")
+                ? objectMapper.readValue(payload, FIX_LIST)
+                : List.of(objectMapper.readValue(payload, LocationUpdateDto.class));
+        } catch (IOException e) {
+            reject(session, "Malformed location update");
+            return;
+        }
+        apply(session, fixes);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        ByteBuffer buffer = message.getPayload();
+        byte[] payload = new byte[buffer.remaining()];
+        buffer.get(payload);
+
+        List<VehicleTelemetryDto> records;
+        try {
+            records = TelemetryBinaryCodec.decode(payload);
+        } catch (IOException e) {
+            reject(session, "Malformed telemetry frame: " + e.getMessage());
+            return;
+        }
+
+        // Record ids are ignored, the session is bound to one vehicle
+        List<LocationUpdateDto> fixes = new ArrayList<>(records.size());
+        for (VehicleTelemetryDto record : records) {
+            LocationUpdateDto fix = new LocationUpdateDto(record.getLat(), record.getLon());
+            fix.setSpeed(record.getSpeed());
+            fix.setDirection(record.getHeading());
+            fix.setTimestamp(record.getTs());
+            fixes.add(fix);
+        }
+        apply(session, fixes);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.debug("Telemetry session {} transport error: {}", session.getId(), exception.getMessage());
+    }
+
+    /**
+     * Close sessions whose driver is no longer assigned to the vehicle they report for
+     */
+    @EventListener
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        Vehicle vehicle = event.getVehicle();
+        for (WebSocketSession session : sessions.values()) {
+            if (!vehicle.getId().equals(vehicleId(session))) {
+                continue;
+            }
+            Object driverId = session.getAttributes().get(TelemetryHandshakeInterceptor.DRIVER_ID);
+            if (!driverId.equals(vehicle.getDriverId()) || !Boolean.TRUE.equals(vehicle.getIsActive())) {
+                try {
+                    session.close(CloseStatus.POLICY_VIOLATION.withReason("Vehicle assignment changed"));
+                } catch (IOException e) {
+                    logger.debug("Failed to close telemetry session {}: {}", session.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void apply(WebSocketSession session, List<LocationUpdateDto> fixes) throws IOException {
+        String vehicleId = vehicleId(session);
+        for (LocationUpdateDto fix : fixes) {
+            Set<ConstraintViolation<LocationUpdateDto>> violations = validator.validate(fix);
+            if (!violations.isEmpty()) {
+                reject(session, violations.iterator().next().getMessage());
+                continue;
+            }
+            try {
+                if (locationIngestPipeline.submit(vehicleId, fix) == Admission.SATURATED) {
+                    // The rest of the frame would be refused as well
+                    reject(session, "Location ingest is busy, retry after "
+                        + locationIngestPipeline.getRetryAfterSeconds() + " seconds");
+                    return;
+                }
+            } catch (RuntimeException e) {
+                reject(session, e.getMessage());
+            }
+        }
+    }
+
+    private void reject(WebSocketSession session, String reason) throws IOException {
+        if (session.isOpen()) {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(new MessageResponse(reason))));
+        }
+    }
+
+    private static String vehicleId(WebSocketSession session) {
+        return (String) session.getAttributes().get(TelemetryHandshakeInterceptor.VEHICLE_ID);
+    }
+}
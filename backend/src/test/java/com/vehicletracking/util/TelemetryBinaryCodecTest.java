@@ -0,0 +1,168 @@
+package com.vehicletracking.util;
+
+import com.vehicletracking.dto.VehicleResponseDto;
+import com.vehicletracking.dto.VehicleTelemetryDto;
+import com.vehicletracking.model.VehicleStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryBinaryCodecTest {
+
+    // Encoded coordinates are rounded to microdegrees, speeds to 0.1 km/h
+    private static final double COORDINATE_TOLERANCE = 0.5e-6;
+    private static final double SPEED_TOLERANCE = 0.05;
+
+    @Test
+    void roundTripsAllFields() throws IOException {
+        VehicleTelemetryDto vehicle = new VehicleTelemetryDto("bus-12", 6.524379, 3.379206, 42.3, "NE",
+            1_718_000_000_123L, VehicleStatus.values()[0]);
+
+        VehicleTelemetryDto decoded = roundTrip(vehicle);
+
+        assertEquals("bus-12", decoded.getId());
+        assertEquals(6.524379, decoded.getLat(), COORDINATE_TOLERANCE);
+        assertEquals(3.379206, decoded.getLon(), COORDINATE_TOLERANCE);
+        assertEquals(42.3, decoded.getSpeed(), SPEED_TOLERANCE);
+        assertEquals("NE", decoded.getHeading());
+        assertEquals(1_718_000_000_123L, decoded.getTs());
+        assertEquals(VehicleStatus.values()[0], decoded.getStatus());
+    }
+
+    @Test
+    void roundTripsEveryStatusAndHeading() throws IOException {
+        String[] headings = {"N", "NE", "E", "SE", "S", "SW", "W", "NW"};
+        List<VehicleTelemetryDto> vehicles = new ArrayList<>();
+        for (VehicleStatus status : VehicleStatus.values()) {
+            for (String heading : headings) {
+                vehicles.add(new VehicleTelemetryDto(status + "-" + heading, 1.0, 2.0, 3.0, heading, 4L, status));
+            }
+        }
+
+        List<VehicleTelemetryDto> decoded = TelemetryBinaryCodec.decode(TelemetryBinaryCodec.encode(vehicles));
+
+        assertEquals(vehicles.size(), decoded.size());
+        for (int i = 0; i < vehicles.size(); i++) {
+            assertEquals(vehicles.get(i).getId(), decoded.get(i).getId());
+            assertEquals(vehicles.get(i).getHeading(), decoded.get(i).getHeading());
+            assertEquals(vehicles.get(i).getStatus(), decoded.get(i).getStatus());
+        }
+    }
+
+    @Test
+    void keepsAbsentValuesAbsent() throws IOException {
+        VehicleTelemetryDto decoded = roundTrip(new VehicleTelemetryDto());
+
+        assertEquals("", decoded.getId());
+        assertNull(decoded.getLat());
+        assertNull(decoded.getLon());
+        assertNull(decoded.getSpeed());
+        assertNull(decoded.getHeading());
+        assertNull(decoded.getTs());
+        assertNull(decoded.getStatus());
+    }
+
+    @Test
+    void dropsPositionWithoutBothCoordinates() throws IOException {
+        VehicleTelemetryDto decoded = roundTrip(new VehicleTelemetryDto("v", 10.0, null, null, null, null, null));
+
+        assertNull(decoded.getLat());
+        assertNull(decoded.getLon());
+    }
+
+    @Test
+    void dropsUnknownHeading() throws IOException {
+        assertNull(roundTrip(new VehicleTelemetryDto("v", null, null, null, "NNE", null, null)).getHeading());
+        assertEquals("SW", roundTrip(new VehicleTelemetryDto("v", null, null, null, "sw", null, null)).getHeading());
+    }
+
+    @Test
+    void roundTripsExtremeCoordinates() throws IOException {
+        double[][] positions = {{90.0, 180.0}, {-90.0, -180.0}, {0.0, 0.0}, {-0.000001, 0.000001}, {89.999999, -179.999999}};
+        for (double[] position : positions) {
+            VehicleTelemetryDto decoded = roundTrip(new VehicleTelemetryDto("v", position[0], position[1], null, null, null, null));
+
+            assertEquals(position[0], decoded.getLat(), COORDINATE_TOLERANCE);
+            assertEquals(position[1], decoded.getLon(), COORDINATE_TOLERANCE);
+        }
+    }
+
+    @Test
+    void roundTripsExtremeTimestamps() throws IOException {
+        for (long ts : new long[] {0L, 1L, -1L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(ts, roundTrip(new VehicleTelemetryDto("v", null, null, null, null, ts, null)).getTs());
+        }
+    }
+
+    @Test
+    void clampsSpeedToItsField() throws IOException {
+        assertEquals(0.0, roundTrip(new VehicleTelemetryDto("v", null, null, -5.0, null, null, null)).getSpeed());
+        assertEquals(6553.5, roundTrip(new VehicleTelemetryDto("v", null, null, 1e9, null, null, null)).getSpeed());
+    }
+
+    @Test
+    void roundTripsEmptyBatch() throws IOException {
+        byte[] encoded = TelemetryBinaryCodec.encode(new ArrayList<>());
+
+        assertEquals(7, encoded.length);
+        assertTrue(TelemetryBinaryCodec.decode(encoded).isEmpty());
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedPayloads() {
+        assertThrows(IOException.class, () -> TelemetryBinaryCodec.decode("{\"id\":1}".getBytes()));
+
+        byte[] encoded = TelemetryBinaryCodec.encode(List.of(new VehicleTelemetryDto("v", 1.0, 2.0, 3.0, "N", 4L, null)));
+        assertThrows(IOException.class, () -> TelemetryBinaryCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+
+        byte[] futureVersion = encoded.clone();
+        futureVersion[2] = 2;
+        assertThrows(IOException.class, () -> TelemetryBinaryCodec.decode(futureVersion));
+    }
+
+    @Test
+    void isSmallerThanVehicleResponseJson() throws IOException {
+        List<VehicleTelemetryDto> telemetry = new ArrayList<>();
+        List<VehicleResponseDto> responses = new ArrayList<>();
+        VehicleStatus[] statuses = VehicleStatus.values();
+        for (int i = 0; i < 500; i++) {
+            VehicleTelemetryDto vehicle = new VehicleTelemetryDto("vehicle-" + i, 6.5 + i * 1e-4, 3.3 - i * 1e-4,
+                i % 80 + 0.5, "NE", 1_718_000_000_000L + i, statuses[i % statuses.length]);
+            telemetry.add(vehicle);
+
+            // The tracking fields of the response the REST path returned before the binary format
+            VehicleResponseDto response = new VehicleResponseDto();
+            response.setId(vehicle.getId());
+            response.setStatus(vehicle.getStatus());
+            response.setCurrentLatitude(vehicle.getLat());
+            response.setCurrentLongitude(vehicle.getLon());
+            response.setCurrentSpeed(vehicle.getSpeed());
+            response.setDirection(vehicle.getHeading());
+            response.setLastLocationUpdate(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(vehicle.getTs()), ZoneOffset.UTC));
+            responses.add(response);
+        }
+
+        byte[] binary = TelemetryBinaryCodec.encode(telemetry);
+        byte[] json = Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(responses);
+
+        assertEquals(7 + 500 * 23 + telemetry.stream().mapToInt(v -> v.getId().length()).sum(), binary.length);
+        assertTrue(binary.length * 10 < json.length,
+            "binary " + binary.length + " bytes should be under a tenth of JSON " + json.length + " bytes");
+    }
+
+    private static VehicleTelemetryDto roundTrip(VehicleTelemetryDto vehicle) throws IOException {
+        List<VehicleTelemetryDto> decoded = TelemetryBinaryCodec.decode(TelemetryBinaryCodec.encode(List.of(vehicle)));
+        assertEquals(1, decoded.size());
+        return decoded.get(0);
+    }
+}